@@ -0,0 +1,81 @@
+package search.algo;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+//problem: Run the range test of LinearScan with the Vector API, one vector of ints per compare.
+
+//logic:
+//1. x is in [low, low + span] exactly when x - low <= span as unsigned ints. Subtract low from a whole vector, flip
+//   the sign bit (which turns the unsigned order into the signed one) and compare it against span with its sign bit
+//   flipped too: one mask of the matching lanes per vector.
+//2. count adds the mask's trueCount. indexOf ORs the masks of UNROLL vectors and only when one of them has a
+//   true lane looks for the first one with firstTrue.
+//3. The tail that doesn't fill a vector is done with the same scalar test as LinearScan.
+
+//Build: javac --add-modules jdk.incubator.vector -cp bin -d bin src-incubator/search/algo/VectorLinearScan.java
+//Run:   java --add-modules jdk.incubator.vector -cp bin search.algo.LinearScan
+
+class VectorLinearScan implements LinearScan.Kernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = INTS.length();
+    private static final int UNROLL = 4;
+
+    @Override
+    public int indexOf(int[] arr, int from, int to, int low, int span) {
+        IntVector lowVector = IntVector.broadcast(INTS, low);
+        IntVector spanVector = IntVector.broadcast(INTS, span ^ Integer.MIN_VALUE);
+        int i = from;
+        for (; i + UNROLL * LANES <= to; i += UNROLL * LANES) {
+            VectorMask<Integer> any = matches(arr, i, lowVector, spanVector);
+            for (int u = 1; u < UNROLL; u++) {
+                any = any.or(matches(arr, i + u * LANES, lowVector, spanVector));
+            }
+            if (any.anyTrue()) {
+                for (int u = 0; u < UNROLL; u++) {
+                    VectorMask<Integer> mask = matches(arr, i + u * LANES, lowVector, spanVector);
+                    if (mask.anyTrue()) {
+                        return i + u * LANES + mask.firstTrue();
+                    }
+                }
+            }
+        }
+        for (; i + LANES <= to; i += LANES) {
+            VectorMask<Integer> mask = matches(arr, i, lowVector, spanVector);
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (Integer.compareUnsigned(arr[i] - low, span) <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int count(int[] arr, int from, int to, int low, int span) {
+        IntVector lowVector = IntVector.broadcast(INTS, low);
+        IntVector spanVector = IntVector.broadcast(INTS, span ^ Integer.MIN_VALUE);
+        int count = 0;
+        int i = from;
+        for (; i + LANES <= to; i += LANES) {
+            count += matches(arr, i, lowVector, spanVector).trueCount();
+        }
+        for (; i < to; i++) {
+            count += Integer.compareUnsigned(arr[i] - low, span) <= 0 ? 1 : 0;
+        }
+        return count;
+    }
+
+    //span has its sign bit flipped already
+    private static VectorMask<Integer> matches(int[] arr, int offset, IntVector low, IntVector span) {
+        return IntVector.fromArray(INTS, arr, offset).sub(low).lanewise(VectorOperators.XOR, Integer.MIN_VALUE)
+                .compare(VectorOperators.LE, span);
+    }
+
+}
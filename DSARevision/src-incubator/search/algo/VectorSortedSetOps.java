@@ -0,0 +1,60 @@
+package search.algo;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+//problem: Run the merge intersection of SortedSetOps with the Vector API, a block of values per list at a time.
+
+//logic:
+//1. Take the next LANES values of both lists. If their ranges overlap, load a's block into one vector, compare it
+//   for equality with each value of b's block (broadcast to every lane) and OR the masks: the lanes of a whose value
+//   is somewhere in b's block. Blocks whose ranges don't overlap skip the compares, which matters for sparse matches.
+//2. Write the matching values of a in lane order: walk the set bits of mask.toLong().
+//3. Advance the block whose last value is smaller (both if they are equal). Its values can't match anything further
+//   in the other list, and the values of the block that stays can't match anything already passed, because both
+//   lists are strictly increasing, so every common value is written exactly once and in order.
+//4. Once either list has fewer than LANES values left, the rest is a scalar merge.
+
+//Build: javac --add-modules jdk.incubator.vector -cp bin -d bin src-incubator/search/algo/VectorSortedSetOps.java
+//Run:   java --add-modules jdk.incubator.vector -cp bin search.algo.SortedSetOps
+
+class VectorSortedSetOps implements SortedSetOps.Kernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_256; //8 ints; with 16 lanes the 16 compares per block cost more than they save
+    private static final int LANES = INTS.length();
+
+    @Override
+    public int intersect(int[] a, int aLength, int[] b, int bLength, int[] out) {
+        int i = 0, j = 0, count = 0;
+        while (i + LANES <= aLength && j + LANES <= bLength) {
+            int aLast = a[i + LANES - 1];
+            int bLast = b[j + LANES - 1];
+            if (a[i] <= bLast && b[j] <= aLast) {
+                IntVector block = IntVector.fromArray(INTS, a, i);
+                VectorMask<Integer> found = block.compare(VectorOperators.EQ, b[j]);
+                for (int t = 1; t < LANES; t++) {
+                    found = found.or(block.compare(VectorOperators.EQ, b[j + t]));
+                }
+                //out may be a or b: every write goes to an index at or before the value it copies, already loaded
+                for (long bits = found.toLong(); bits != 0; bits &= bits - 1) {
+                    out[count++] = a[i + Long.numberOfTrailingZeros(bits)];
+                }
+            }
+            i += aLast <= bLast ? LANES : 0;
+            j += bLast <= aLast ? LANES : 0;
+        }
+        while (i < aLength && j < bLength) {
+            int x = a[i];
+            int y = b[j];
+            if (x == y) {
+                out[count++] = x;
+            }
+            i += x <= y ? 1 : 0;
+            j += y <= x ? 1 : 0;
+        }
+        return count;
+    }
+
+}
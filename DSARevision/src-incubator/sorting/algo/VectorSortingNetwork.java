@@ -0,0 +1,279 @@
+package sorting.algo;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+//problem: Run the bitonic network of SortingNetwork with the Vector API, several compare-exchanges per instruction.
+
+//logic:
+//1. Load the block into n / L vectors of L lanes (8 ints or 4 longs in 256 bits).
+//2. Step (k, j) with j >= L compares lane t of vector a with lane t of vector a ^ (j / L):
+//   one vector min and one vector max, then swap the roles if that part of the network sorts descending.
+//3. Step (k, j) with j < L compares lanes inside one vector: rearrange the vector with the shuffle t -> t ^ j
+//   to line up every lane with its partner, take min and max, and blend them with a precomputed mask
+//   of which lanes keep the minimum.
+//4. merge reverses the second block (reverse the vector order and the lanes) and runs only the last stage.
+//5. The vectors of a block live in a per-thread scratch array, grown only for merges longer than MAX_BLOCK,
+//   so the base case allocates nothing.
+
+//Build: javac --add-modules jdk.incubator.vector -cp bin -d bin src-incubator/sorting/algo/VectorSortingNetwork.java
+//Run:   java --add-modules jdk.incubator.vector -cp bin sorting.algo.SortingNetwork
+
+class VectorSortingNetwork implements SortingNetwork.Kernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_256;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_256;
+    private static final int INT_LANES = INTS.length();
+    private static final int LONG_LANES = LONGS.length();
+
+    //Index by log2(j) and log2(k) for in-vector steps
+    private static final VectorShuffle<Integer>[] INT_XOR = intXorShuffles();
+    private static final VectorShuffle<Long>[] LONG_XOR = longXorShuffles();
+    private static final VectorShuffle<Integer> INT_REVERSE = VectorShuffle.fromOp(INTS, t -> INT_LANES - 1 - t);
+    private static final VectorShuffle<Long> LONG_REVERSE = VectorShuffle.fromOp(LONGS, t -> LONG_LANES - 1 - t);
+    //[log2(k)][log2(j)]: lanes that keep the min. For k >= L only ascending and descending variants exist,
+    //stored at log2(k) = log2(L) (ascending) and log2(L) + 1 (descending).
+    private static final VectorMask<Integer>[][] INT_KEEP_MIN = intMasks();
+    private static final VectorMask<Long>[][] LONG_KEEP_MIN = longMasks();
+
+    private static final ThreadLocal<IntVector[]> INT_VECTORS =
+            ThreadLocal.withInitial(() -> new IntVector[SortingNetwork.MAX_BLOCK / INT_LANES]);
+    private static final ThreadLocal<LongVector[]> LONG_VECTORS =
+            ThreadLocal.withInitial(() -> new LongVector[SortingNetwork.MAX_BLOCK / LONG_LANES]);
+
+    @Override
+    public int intLanes() {
+        return INT_LANES;
+    }
+
+    @Override
+    public int longLanes() {
+        return LONG_LANES;
+    }
+
+    @Override
+    public void sort(int[] arr, int from, int n) {
+        int count = n / INT_LANES;
+        int laneBits = Integer.numberOfTrailingZeros(INT_LANES);
+        IntVector[] v = intVectors(count);
+        for (int a = 0; a < count; a++) {
+            v[a] = IntVector.fromArray(INTS, arr, from + a * INT_LANES);
+        }
+        for (int k = 2; k <= n; k <<= 1) {
+            int kBits = Integer.numberOfTrailingZeros(k);
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                if (j >= INT_LANES) {
+                    exchangeVectors(v, count, j / INT_LANES, k, INT_LANES);
+                } else {
+                    int jBits = Integer.numberOfTrailingZeros(j);
+                    for (int a = 0; a < count; a++) {
+                        int row = k < INT_LANES ? kBits : laneBits + (((a * INT_LANES) & k) == 0 ? 0 : 1);
+                        IntVector partner = v[a].rearrange(INT_XOR[jBits]);
+                        IntVector min = v[a].min(partner);
+                        IntVector max = v[a].max(partner);
+                        v[a] = max.blend(min, INT_KEEP_MIN[row][jBits]);
+                    }
+                }
+            }
+        }
+        for (int a = 0; a < count; a++) {
+            v[a].intoArray(arr, from + a * INT_LANES);
+        }
+    }
+
+    @Override
+    public void merge(int[] arr, int from, int half) {
+        int n = 2 * half;
+        int count = n / INT_LANES;
+        int halfCount = count / 2;
+        int laneBits = Integer.numberOfTrailingZeros(INT_LANES);
+        IntVector[] v = intVectors(count);
+        for (int a = 0; a < halfCount; a++) {
+            v[a] = IntVector.fromArray(INTS, arr, from + a * INT_LANES);
+        }
+        for (int a = halfCount; a < count; a++) {//Second block reversed
+            v[count - 1 - (a - halfCount)] = IntVector.fromArray(INTS, arr, from + a * INT_LANES).rearrange(INT_REVERSE);
+        }
+        for (int j = half; j > 0; j >>= 1) {
+            if (j >= INT_LANES) {
+                exchangeVectors(v, count, j / INT_LANES, n, INT_LANES);
+            } else {
+                int jBits = Integer.numberOfTrailingZeros(j);
+                for (int a = 0; a < count; a++) {
+                    IntVector partner = v[a].rearrange(INT_XOR[jBits]);
+                    v[a] = v[a].max(partner).blend(v[a].min(partner), INT_KEEP_MIN[laneBits][jBits]);
+                }
+            }
+        }
+        for (int a = 0; a < count; a++) {
+            v[a].intoArray(arr, from + a * INT_LANES);
+        }
+    }
+
+    @Override
+    public void sort(long[] arr, int from, int n) {
+        int count = n / LONG_LANES;
+        int laneBits = Integer.numberOfTrailingZeros(LONG_LANES);
+        LongVector[] v = longVectors(count);
+        for (int a = 0; a < count; a++) {
+            v[a] = LongVector.fromArray(LONGS, arr, from + a * LONG_LANES);
+        }
+        for (int k = 2; k <= n; k <<= 1) {
+            int kBits = Integer.numberOfTrailingZeros(k);
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                if (j >= LONG_LANES) {
+                    exchangeVectors(v, count, j / LONG_LANES, k, LONG_LANES);
+                } else {
+                    int jBits = Integer.numberOfTrailingZeros(j);
+                    for (int a = 0; a < count; a++) {
+                        int row = k < LONG_LANES ? kBits : laneBits + (((a * LONG_LANES) & k) == 0 ? 0 : 1);
+                        LongVector partner = v[a].rearrange(LONG_XOR[jBits]);
+                        LongVector min = v[a].min(partner);
+                        LongVector max = v[a].max(partner);
+                        v[a] = max.blend(min, LONG_KEEP_MIN[row][jBits]);
+                    }
+                }
+            }
+        }
+        for (int a = 0; a < count; a++) {
+            v[a].intoArray(arr, from + a * LONG_LANES);
+        }
+    }
+
+    @Override
+    public void merge(long[] arr, int from, int half) {
+        int n = 2 * half;
+        int count = n / LONG_LANES;
+        int halfCount = count / 2;
+        int laneBits = Integer.numberOfTrailingZeros(LONG_LANES);
+        LongVector[] v = longVectors(count);
+        for (int a = 0; a < halfCount; a++) {
+            v[a] = LongVector.fromArray(LONGS, arr, from + a * LONG_LANES);
+        }
+        for (int a = halfCount; a < count; a++) {
+            v[count - 1 - (a - halfCount)] = LongVector.fromArray(LONGS, arr, from + a * LONG_LANES)
+                    .rearrange(LONG_REVERSE);
+        }
+        for (int j = half; j > 0; j >>= 1) {
+            if (j >= LONG_LANES) {
+                exchangeVectors(v, count, j / LONG_LANES, n, LONG_LANES);
+            } else {
+                int jBits = Integer.numberOfTrailingZeros(j);
+                for (int a = 0; a < count; a++) {
+                    LongVector partner = v[a].rearrange(LONG_XOR[jBits]);
+                    v[a] = v[a].max(partner).blend(v[a].min(partner), LONG_KEEP_MIN[laneBits][jBits]);
+                }
+            }
+        }
+        for (int a = 0; a < count; a++) {
+            v[a].intoArray(arr, from + a * LONG_LANES);
+        }
+    }
+
+    //Scratch for count vectors; only a merge longer than MAX_BLOCK replaces it with a bigger one
+    private static IntVector[] intVectors(int count) {
+        IntVector[] v = INT_VECTORS.get();
+        if (v.length < count) {
+            v = new IntVector[count];
+            INT_VECTORS.set(v);
+        }
+        return v;
+    }
+
+    private static LongVector[] longVectors(int count) {
+        LongVector[] v = LONG_VECTORS.get();
+        if (v.length < count) {
+            v = new LongVector[count];
+            LONG_VECTORS.set(v);
+        }
+        return v;
+    }
+
+    //Compare-exchange between whole vectors a and a ^ distance, direction taken from bit k of the element index
+    private static void exchangeVectors(IntVector[] v, int count, int distance, int k, int lanes) {
+        for (int a = 0; a < count; a++) {
+            int b = a ^ distance;
+            if (b > a) {
+                IntVector min = v[a].min(v[b]);
+                IntVector max = v[a].max(v[b]);
+                boolean ascending = ((a * lanes) & k) == 0;
+                v[a] = ascending ? min : max;
+                v[b] = ascending ? max : min;
+            }
+        }
+    }
+
+    private static void exchangeVectors(LongVector[] v, int count, int distance, int k, int lanes) {
+        for (int a = 0; a < count; a++) {
+            int b = a ^ distance;
+            if (b > a) {
+                LongVector min = v[a].min(v[b]);
+                LongVector max = v[a].max(v[b]);
+                boolean ascending = ((a * lanes) & k) == 0;
+                v[a] = ascending ? min : max;
+                v[b] = ascending ? max : min;
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static VectorShuffle<Integer>[] intXorShuffles() {
+        int bits = Integer.numberOfTrailingZeros(INT_LANES);
+        VectorShuffle<Integer>[] shuffles = new VectorShuffle[bits];
+        for (int b = 0; b < bits; b++) {
+            int j = 1 << b;
+            shuffles[b] = VectorShuffle.fromOp(INTS, t -> t ^ j);
+        }
+        return shuffles;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static VectorShuffle<Long>[] longXorShuffles() {
+        int bits = Integer.numberOfTrailingZeros(LONG_LANES);
+        VectorShuffle<Long>[] shuffles = new VectorShuffle[bits];
+        for (int b = 0; b < bits; b++) {
+            int j = 1 << b;
+            shuffles[b] = VectorShuffle.fromOp(LONGS, t -> t ^ j);
+        }
+        return shuffles;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static VectorMask<Integer>[][] intMasks() {
+        int bits = Integer.numberOfTrailingZeros(INT_LANES);
+        VectorMask<Integer>[][] masks = new VectorMask[bits + 2][bits];
+        for (int row = 1; row < bits + 2; row++) {
+            for (int b = 0; b < bits; b++) {
+                masks[row][b] = VectorMask.fromArray(INTS, keepMin(INT_LANES, row, bits, 1 << b), 0);
+            }
+        }
+        return masks;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static VectorMask<Long>[][] longMasks() {
+        int bits = Integer.numberOfTrailingZeros(LONG_LANES);
+        VectorMask<Long>[][] masks = new VectorMask[bits + 2][bits];
+        for (int row = 1; row < bits + 2; row++) {
+            for (int b = 0; b < bits; b++) {
+                masks[row][b] = VectorMask.fromArray(LONGS, keepMin(LONG_LANES, row, bits, 1 << b), 0);
+            }
+        }
+        return masks;
+    }
+
+    //Lane t keeps the min when it is the lower index of its pair in an ascending part, or the higher in a descending one
+    private static boolean[] keepMin(int lanes, int row, int laneBits, int j) {
+        boolean[] keep = new boolean[lanes];
+        for (int t = 0; t < lanes; t++) {
+            boolean lower = (t & j) == 0;
+            boolean ascending = row < laneBits ? (t & (1 << row)) == 0 : row == laneBits;
+            keep[t] = lower == ascending;
+        }
+        return keep;
+    }
+
+}
@@ -0,0 +1,211 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//problem: Measure the throughput of an algorithm reliably, without ad-hoc System.nanoTime code in every main method.
+
+//logic:
+//1. A Workload has an untimed reset (restore the input) and a timed run that performs opsPerRun operations.
+//2. Warmup iterations run the workload without recording anything so the JIT compiles the hot code first.
+//3. Each measurement iteration repeats reset + run until at least iterationMillis of timed work is done
+//   and records operations per second. Batching many small operations into one run keeps the timer
+//   overhead out of the score for tiny inputs.
+//4. Bytes allocated by the measuring thread during the timed part are counted (like JMH's gc profiler)
+//   and reported per operation and per second.
+//5. Results carry their parameters and raw iteration scores and can be written as JSON.
+//6. fork() runs a benchmark main class in a fresh JVM, so one algorithm's JIT profile can't affect the next.
+
+//Time Complexity: (warmup + measurement) * iterationMillis per benchmark.
+//Space Complexity: Whatever the workload keeps, the runner only stores one score per iteration.
+
+public class BenchmarkRunner {
+
+    private static volatile long sink; //Consumes results so the JIT can't drop the work (a minimal blackhole)
+
+    public interface Workload {
+        void reset();
+
+        long run();
+
+        int opsPerRun();
+    }
+
+    public static class Options {
+        public int warmupIterations = 3;
+        public int measurementIterations = 5;
+        public long iterationMillis = 200;
+    }
+
+    public static class Result {
+        public final String benchmark;
+        public final Map<String, String> params;
+        public final double[] scores; //ops/s of each measurement iteration
+        public final double allocBytesPerOp;
+        public final double allocBytesPerSecond;
+
+        Result(String benchmark, Map<String, String> params, double[] scores, double allocBytesPerOp,
+                double allocBytesPerSecond) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.scores = scores;
+            this.allocBytesPerOp = allocBytesPerOp;
+            this.allocBytesPerSecond = allocBytesPerSecond;
+        }
+
+        public double mean() {
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            return sum / scores.length;
+        }
+
+        public double stdev() {
+            if (scores.length < 2) {
+                return 0;
+            }
+            double mean = mean();
+            double sum = 0;
+            for (double score : scores) {
+                sum += (score - mean) * (score - mean);
+            }
+            return Math.sqrt(sum / (scores.length - 1));
+        }
+
+        public String toJson() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"benchmark\":\"").append(benchmark).append("\",\"mode\":\"thrpt\",\"params\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> entry : params.entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                sb.append('"').append(entry.getKey()).append("\":\"").append(entry.getValue()).append('"');
+            }
+            sb.append("},\"primaryMetric\":{\"score\":").append(number(mean()))
+                    .append(",\"scoreStdev\":").append(number(stdev()))
+                    .append(",\"scoreUnit\":\"ops/s\",\"rawData\":[");
+            for (int i = 0; i < scores.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(number(scores[i]));
+            }
+            sb.append("]},\"secondaryMetrics\":{\"gc.alloc.rate.norm\":{\"score\":").append(number(allocBytesPerOp))
+                    .append(",\"scoreUnit\":\"B/op\"},\"gc.alloc.rate\":{\"score\":")
+                    .append(number(allocBytesPerSecond / (1 << 20))).append(",\"scoreUnit\":\"MB/sec\"}}}");
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-40s %-40s %16.3f +- %12.3f ops/s %14.1f B/op", benchmark, params,
+                    mean(), stdev(), allocBytesPerOp);
+        }
+    }
+
+    public static Result measure(String benchmark, Map<String, String> params, Workload workload, Options options) {
+        for (int i = 0; i < options.warmupIterations; i++) {
+            iteration(workload, options.iterationMillis, null);
+        }
+        double[] scores = new double[options.measurementIterations];
+        long[] allocated = new long[1];
+        long totalOps = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < options.measurementIterations; i++) {
+            long[] opsAndNanos = iteration(workload, options.iterationMillis, allocated);
+            totalOps += opsAndNanos[0];
+            totalNanos += opsAndNanos[1];
+            scores[i] = opsAndNanos[0] * 1e9 / opsAndNanos[1];
+        }
+        double bytesPerOp = allocated[0] < 0 ? Double.NaN : (double) allocated[0] / totalOps;
+        double bytesPerSecond = allocated[0] < 0 ? Double.NaN : allocated[0] * 1e9 / totalNanos;
+        return new Result(benchmark, new LinkedHashMap<>(params), scores, bytesPerOp, bytesPerSecond);
+    }
+
+    //Returns {operations, timed nanoseconds}. Adds the bytes allocated while timing to allocated[0] (-1 if unsupported).
+    private static long[] iteration(Workload workload, long iterationMillis, long[] allocated) {
+        long target = iterationMillis * 1_000_000L;
+        long ops = 0;
+        long nanos = 0;
+        while (nanos < target) {
+            workload.reset();
+            long before = allocated == null ? 0 : allocatedBytes();
+            long start = System.nanoTime();
+            sink ^= workload.run();
+            nanos += System.nanoTime() - start;
+            if (allocated != null) {
+                long after = allocatedBytes();
+                allocated[0] = before < 0 || allocated[0] < 0 ? -1 : allocated[0] + (after - before);
+            }
+            ops += workload.opsPerRun();
+        }
+        return new long[] {ops, nanos};
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    //Runs mainClass in a new JVM with the same classpath and returns every stdout line starting with prefix
+    public static List<String> fork(Class<?> mainClass, List<String> args, String prefix) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(args);
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    lines.add(line.substring(prefix.length()));
+                }
+            }
+        }
+        try {
+            int exit = process.waitFor();
+            if (exit != 0) {
+                throw new IOException("Forked benchmark exited with " + exit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for forked benchmark", e);
+        }
+        return lines;
+    }
+
+    //Writes already serialized JSON objects as one JSON array
+    public static void writeJson(List<String> jsonObjects, Path path) throws IOException {
+        Files.write(path, List.of("[", String.join(",\n", jsonObjects), "]"), StandardCharsets.UTF_8);
+    }
+
+    public static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+}
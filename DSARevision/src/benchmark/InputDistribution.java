@@ -0,0 +1,42 @@
+package benchmark;
+
+import java.util.Random;
+
+//Input shapes that exercise the best and worst cases of the sorting algorithms.
+public enum InputDistribution {
+    RANDOM,
+    SORTED,
+    REVERSED,
+    FEW_UNIQUE, //Only 16 distinct values
+    ORGAN_PIPE, //Ascending then descending: 0 1 2 .. n/2 .. 2 1 0
+    SAWTOOTH; //16 ascending runs: 0 1 2 .. 0 1 2 ..
+
+    public int[] generate(int n, long seed) {
+        Random random = new Random(seed);
+        int[] arr = new int[n];
+        int tooth = Math.max(1, (n + 15) / 16);
+        for (int i = 0; i < n; i++) {
+            switch (this) {
+                case RANDOM:
+                    arr[i] = random.nextInt();
+                    break;
+                case SORTED:
+                    arr[i] = i;
+                    break;
+                case REVERSED:
+                    arr[i] = n - i;
+                    break;
+                case FEW_UNIQUE:
+                    arr[i] = random.nextInt(16);
+                    break;
+                case ORGAN_PIPE:
+                    arr[i] = i < n / 2 ? i : n - i;
+                    break;
+                default:
+                    arr[i] = i % tooth;
+                    break;
+            }
+        }
+        return arr;
+    }
+}
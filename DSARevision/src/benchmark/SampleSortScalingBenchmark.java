@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import sorting.algo.ParallelMergeSort;
+import sorting.algo.ParallelSampleSort;
+
+//problem: Measure how the parallel sorts scale from 1 thread to every core.
+
+//logic:
+//1. For thread counts 1, 2, 4, .. up to the number of cores, create a ForkJoinPool of that size.
+//2. Measure ParallelSampleSort and ParallelMergeSort on the same random input with BenchmarkRunner.
+//3. Print the speedup over the 1 thread run and write all results as JSON.
+
+//Usage: java benchmark.SampleSortScalingBenchmark [size] [out.json]
+
+public class SampleSortScalingBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? (int) Double.parseDouble(args[0]) : 10_000_000;
+        Path out = Paths.get(args.length > 1 ? args[1] : "sample-sort-scaling.json");
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        BenchmarkRunner.Options options = new BenchmarkRunner.Options();
+        options.warmupIterations = 2;
+        options.measurementIterations = 3;
+        options.iterationMillis = 500;
+
+        int[] input = InputDistribution.RANDOM.generate(size, 42);
+        List<String> json = new ArrayList<>();
+        Map<String, Double> singleThread = new LinkedHashMap<>();
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Map<String, Consumer<int[]>> sorts = new LinkedHashMap<>();
+            sorts.put("ParallelSampleSort", arr -> ParallelSampleSort.sort(arr, pool));
+            sorts.put("ParallelMergeSort",
+                    arr -> ParallelMergeSort.parallelMergeSort(arr, ParallelMergeSort.DEFAULT_THRESHOLD, pool));
+
+            for (Map.Entry<String, Consumer<int[]>> sort : sorts.entrySet()) {
+                int[] work = new int[size];
+                BenchmarkRunner.Workload workload = new BenchmarkRunner.Workload() {
+                    @Override
+                    public void reset() {
+                        System.arraycopy(input, 0, work, 0, size);
+                    }
+
+                    @Override
+                    public long run() {
+                        sort.getValue().accept(work);
+                        return work[0];
+                    }
+
+                    @Override
+                    public int opsPerRun() {
+                        return 1;
+                    }
+                };
+                Map<String, String> params = new LinkedHashMap<>();
+                params.put("size", String.valueOf(size));
+                params.put("threads", String.valueOf(threads));
+                BenchmarkRunner.Result result = BenchmarkRunner.measure("sorting.algo." + sort.getKey(), params,
+                        workload, options);
+                singleThread.putIfAbsent(sort.getKey(), result.mean());
+                System.out.printf("%-20s threads=%-3d %10.2f sorts/s  speedup x%.2f%n", sort.getKey(), threads,
+                        result.mean(), result.mean() / singleThread.get(sort.getKey()));
+                json.add(result.toJson());
+            }
+            pool.shutdown();
+        }
+        BenchmarkRunner.writeJson(json, out);
+        System.out.println("Wrote " + json.size() + " results to " + out.toAbsolutePath());
+    }
+
+}
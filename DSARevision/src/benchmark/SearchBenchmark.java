@@ -0,0 +1,228 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+import search.algo.BatchSearch;
+import search.algo.BinarySearch;
+import search.algo.CompressedSortedInts;
+import search.algo.EytzingerIndex;
+import search.algo.InterpolationSearch;
+import search.algo.JumpSearch;
+import search.algo.LearnedIndex;
+
+//problem: Benchmark the lookups of search.algo (one at a time and batched) on large sorted key arrays.
+
+//logic:
+//1. For every (algorithm, size, key distribution) build the sorted keys and a fixed batch of random queries
+//   (about one in four is a hit). Index structures are built once, outside the timed part.
+//2. One timed run answers the whole batch; BenchmarkRunner reports lookups per second. Point lookups answer the
+//   batch one query at a time, BatchSearch gets the whole batch in one call.
+//3. UNIFORM keys are evenly spread, the best case for interpolation search. SKEWED keys grow quadratically,
+//   so interpolation guesses land far from the target.
+//4. --forks and --out work as in SortBenchmark.
+
+//Usage: java -Xmx4g benchmark.SearchBenchmark --sizes 1e3,1e6,1e8 --keys UNIFORM,SKEWED
+//       --algorithms BinarySearch,EytzingerIndex --warmup 3 --iterations 5 --time 200 --forks 1 --out search-results.json
+
+public class SearchBenchmark {
+
+    private static final String RESULT_PREFIX = "RESULT ";
+    private static final int QUERIES = 1 << 16;
+
+    public enum KeyDistribution {
+        UNIFORM, SKEWED;
+
+        //Sorted, distinct keys in [0, 4n)
+        public int[] generate(int n, long seed) {
+            Random random = new Random(seed);
+            int[] keys = new int[n];
+            for (int i = 0; i < n; i++) {
+                keys[i] = this == UNIFORM ? 4 * i + random.nextInt(4) : (int) (i + 3L * i * i / n);
+            }
+            return keys;
+        }
+    }
+
+    //Answers a batch of queries and returns a checksum of the answers
+    private interface Lookup {
+        long run(int[] queries);
+    }
+
+    //Each entry builds whatever it needs from the sorted keys and returns the lookup
+    private static final Map<String, Function<int[], Lookup>> ALGORITHMS = new LinkedHashMap<>();
+
+    static {
+        ALGORITHMS.put("BinarySearch", each(keys -> query -> BinarySearch.binarySearch(keys, query)));
+        ALGORITHMS.put("JumpSearch", each(keys -> query -> JumpSearch.jumpSearch(keys, query)));
+        ALGORITHMS.put("InterpolationSearch", each(keys -> query -> InterpolationSearch.interpolationSearch(keys, query)));
+        ALGORITHMS.put("EytzingerIndex", each(keys -> new EytzingerIndex(keys)::indexOf));
+        ALGORITHMS.put("EytzingerIndex.lowerBound", each(keys -> new EytzingerIndex(keys)::lowerBound));
+        ALGORITHMS.put("LearnedIndex", each(keys -> new LearnedIndex(keys)::indexOf));
+        ALGORITHMS.put("CompressedSortedInts", each(keys -> new CompressedSortedInts(keys)::indexOf));
+        ALGORITHMS.put("BatchSearch", keys -> queries -> checksum(BatchSearch.search(keys, queries)));
+        ALGORITHMS.put("BatchSearch.interleaved", keys -> {
+            int[] out = new int[QUERIES];
+            return queries -> {
+                BatchSearch.lowerBoundsInterleaved(keys, queries, out);
+                return checksum(out);
+            };
+        });
+        ALGORITHMS.put("BatchSearch.merge", keys -> {
+            int[] out = new int[QUERIES];
+            return queries -> {
+                BatchSearch.lowerBoundsMerge(keys, queries, out);
+                return checksum(out);
+            };
+        });
+    }
+
+    //One call per query
+    private static Function<int[], Lookup> each(Function<int[], IntUnaryOperator> build) {
+        return keys -> {
+            IntUnaryOperator lookup = build.apply(keys);
+            return queries -> {
+                long checksum = 0;
+                for (int query : queries) {
+                    checksum += lookup.applyAsInt(query);
+                }
+                return checksum;
+            };
+        };
+    }
+
+    private static long checksum(int[] answers) {
+        long checksum = 0;
+        for (int answer : answers) {
+            checksum += answer;
+        }
+        return checksum;
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        List<Integer> sizes = List.of(1_000, 1_000_000, 10_000_000);
+        List<KeyDistribution> distributions = Arrays.asList(KeyDistribution.values());
+        List<String> algorithms = new ArrayList<>(ALGORITHMS.keySet());
+        BenchmarkRunner.Options options = new BenchmarkRunner.Options();
+        int forks = 0;
+        Path out = Paths.get("search-benchmark.json");
+        boolean child = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = new ArrayList<>();
+                    for (String size : args[++i].split(",")) {
+                        sizes.add((int) Double.parseDouble(size));
+                    }
+                    break;
+                case "--keys":
+                    distributions = new ArrayList<>();
+                    for (String name : args[++i].split(",")) {
+                        distributions.add(KeyDistribution.valueOf(name));
+                    }
+                    break;
+                case "--algorithms":
+                    algorithms = Arrays.asList(args[++i].split(","));
+                    break;
+                case "--warmup":
+                    options.warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--iterations":
+                    options.measurementIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--time":
+                    options.iterationMillis = Long.parseLong(args[++i]);
+                    break;
+                case "--forks":
+                    forks = Integer.parseInt(args[++i]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[++i]);
+                    break;
+                case "--child":
+                    child = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        for (String algorithm : algorithms) {
+            if (!ALGORITHMS.containsKey(algorithm)) {
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm + ", known: " + ALGORITHMS.keySet());
+            }
+        }
+
+        List<String> json = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            for (int size : sizes) {
+                for (KeyDistribution distribution : distributions) {
+                    if (forks > 0) {
+                        List<String> childArgs = List.of("--child", "--algorithms", algorithm, "--sizes",
+                                String.valueOf(size), "--keys", distribution.name(), "--warmup",
+                                String.valueOf(options.warmupIterations), "--iterations",
+                                String.valueOf(options.measurementIterations), "--time",
+                                String.valueOf(options.iterationMillis));
+                        for (int fork = 0; fork < forks; fork++) {
+                            for (String line : BenchmarkRunner.fork(SearchBenchmark.class, childArgs, RESULT_PREFIX)) {
+                                System.out.println("fork " + (fork + 1) + ": " + line);
+                                json.add(line);
+                            }
+                        }
+                        continue;
+                    }
+                    BenchmarkRunner.Result result = run(algorithm, size, distribution, options);
+                    if (child) {
+                        System.out.println(RESULT_PREFIX + result.toJson());
+                    } else {
+                        System.out.println(result);
+                        json.add(result.toJson());
+                    }
+                }
+            }
+        }
+        if (!child) {
+            BenchmarkRunner.writeJson(json, out);
+            System.out.println("Wrote " + json.size() + " results to " + out.toAbsolutePath());
+        }
+    }
+
+    static BenchmarkRunner.Result run(String algorithm, int size, KeyDistribution distribution,
+            BenchmarkRunner.Options options) {
+        int[] keys = distribution.generate(size, 42);
+        Lookup lookup = ALGORITHMS.get(algorithm).apply(keys);
+        int[] queries = new Random(7).ints(QUERIES, 0, 4 * size).toArray();
+
+        BenchmarkRunner.Workload workload = new BenchmarkRunner.Workload() {
+            @Override
+            public void reset() {
+            }
+
+            @Override
+            public long run() {
+                return lookup.run(queries);
+            }
+
+            @Override
+            public int opsPerRun() {
+                return QUERIES;
+            }
+        };
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("size", String.valueOf(size));
+        params.put("keys", distribution.name());
+        return BenchmarkRunner.measure("search.algo." + algorithm, params, workload, options);
+    }
+
+}
@@ -0,0 +1,218 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import sorting.algo.BubbleSort;
+import sorting.algo.DaryHeapSort;
+import sorting.algo.HeapSort;
+import sorting.algo.InsertionSort;
+import sorting.algo.IntroSort;
+import sorting.algo.MergeSort;
+import sorting.algo.ParallelMergeSort;
+import sorting.algo.ParallelSampleSort;
+import sorting.algo.QuickSort;
+import sorting.algo.RadixSort;
+import sorting.algo.SelectionSort;
+import sorting.algo.SortEngine;
+import sorting.algo.TimSort;
+
+//problem: Benchmark every algorithm in sorting.algo across input sizes and input distributions.
+
+//logic:
+//1. For every (algorithm, size, distribution) build the input once, then let BenchmarkRunner warm up and
+//   measure throughput (sorts per second) and allocation (bytes per sort).
+//2. Small inputs are sorted in batches of fresh copies so one timed run is long enough to measure.
+//3. O(n^2) cases (the simple sorts, and Lomuto QuickSort on anything but random data) are skipped above
+//   --quadratic-max elements, otherwise a 10^8 run would never finish. A cell that still overflows the stack
+//   (QuickSort recurses n deep on those inputs) is reported as failed and the run goes on.
+//4. With --forks N every combination runs in N fresh JVMs, otherwise everything runs in this JVM.
+//5. All results are written as a JSON array (JMH-like layout) to --out.
+
+//Usage: java benchmark.SortBenchmark --sizes 10,1000,1000000 --distributions RANDOM,SORTED
+//       --algorithms QuickSort,MergeSort --warmup 3 --iterations 5 --time 200 --forks 1 --out sort-results.json
+
+public class SortBenchmark {
+
+    private static final String RESULT_PREFIX = "RESULT ";
+    private static final int BATCH_ELEMENTS = 1 << 20; //Elements sorted per timed run for small sizes
+
+    private static final Map<String, Consumer<int[]>> ALGORITHMS = new LinkedHashMap<>();
+    private static final Set<String> QUADRATIC = Set.of("BubbleSort", "SelectionSort", "InsertionSort");
+
+    static {
+        ALGORITHMS.put("BubbleSort", BubbleSort::bubbleSort);
+        ALGORITHMS.put("SelectionSort", SelectionSort::selectionSort);
+        ALGORITHMS.put("InsertionSort", InsertionSort::insertionSort);
+        ALGORITHMS.put("MergeSort", arr -> MergeSort.mergeSort(arr, 0, arr.length - 1));
+        ALGORITHMS.put("QuickSort", arr -> QuickSort.quickSort(arr, 0, arr.length - 1));
+        ALGORITHMS.put("HeapSort", HeapSort::heapSort);
+        ALGORITHMS.put("IntroSort", IntroSort::introSort);
+        ALGORITHMS.put("RadixSort", RadixSort::radixSort);
+        ALGORITHMS.put("ParallelMergeSort", ParallelMergeSort::parallelMergeSort);
+        ALGORITHMS.put("ParallelSampleSort", ParallelSampleSort::sort);
+        ALGORITHMS.put("DaryHeapSort", DaryHeapSort::heapSort);
+        ALGORITHMS.put("TimSort", TimSort::timSort);
+        ALGORITHMS.put("SortEngine", SortEngine::sort);
+    }
+
+    public static void main(String[] args) throws IOException {
+
+        List<Integer> sizes = List.of(10, 1_000, 100_000);
+        List<InputDistribution> distributions = Arrays.asList(InputDistribution.values());
+        List<String> algorithms = new ArrayList<>(ALGORITHMS.keySet());
+        BenchmarkRunner.Options options = new BenchmarkRunner.Options();
+        int forks = 0;
+        int quadraticMax = 10_000; //Below the largest default size, so the default run skips the O(n^2) cases
+        Path out = Paths.get("sort-benchmark.json");
+        boolean child = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = new ArrayList<>();
+                    for (String size : args[++i].split(",")) {
+                        sizes.add((int) Double.parseDouble(size)); //Accepts 1e8
+                    }
+                    break;
+                case "--distributions":
+                    distributions = new ArrayList<>();
+                    for (String name : args[++i].split(",")) {
+                        distributions.add(InputDistribution.valueOf(name));
+                    }
+                    break;
+                case "--algorithms":
+                    algorithms = Arrays.asList(args[++i].split(","));
+                    break;
+                case "--warmup":
+                    options.warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--iterations":
+                    options.measurementIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "--time":
+                    options.iterationMillis = Long.parseLong(args[++i]);
+                    break;
+                case "--forks":
+                    forks = Integer.parseInt(args[++i]);
+                    break;
+                case "--quadratic-max":
+                    quadraticMax = Integer.parseInt(args[++i]);
+                    break;
+                case "--out":
+                    out = Paths.get(args[++i]);
+                    break;
+                case "--child":
+                    child = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        for (String algorithm : algorithms) {
+            if (!ALGORITHMS.containsKey(algorithm)) {
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm + ", known: " + ALGORITHMS.keySet());
+            }
+        }
+
+        List<String> json = new ArrayList<>();
+        for (String algorithm : algorithms) {
+            for (int size : sizes) {
+                for (InputDistribution distribution : distributions) {
+                    if (size > quadraticMax && isQuadratic(algorithm, distribution)) {
+                        if (!child) {
+                            System.out.println("skipped " + algorithm + " size=" + size + " " + distribution
+                                    + " (quadratic, raise --quadratic-max to run it)");
+                        }
+                        continue;
+                    }
+                    if (forks > 0) {
+                        List<String> childArgs = List.of("--child", "--algorithms", algorithm, "--sizes",
+                                String.valueOf(size), "--distributions", distribution.name(), "--warmup",
+                                String.valueOf(options.warmupIterations), "--iterations",
+                                String.valueOf(options.measurementIterations), "--time",
+                                String.valueOf(options.iterationMillis), "--quadratic-max",
+                                String.valueOf(quadraticMax));
+                        for (int fork = 0; fork < forks; fork++) {
+                            for (String line : BenchmarkRunner.fork(SortBenchmark.class, childArgs, RESULT_PREFIX)) {
+                                System.out.println("fork " + (fork + 1) + ": " + line);
+                                json.add(line);
+                            }
+                        }
+                        continue;
+                    }
+                    BenchmarkRunner.Result result;
+                    try {
+                        result = run(algorithm, size, distribution, options);
+                    } catch (StackOverflowError e) {
+                        //A too deep recursion fails this cell only, the rest of the matrix still runs
+                        System.out.println("failed " + algorithm + " size=" + size + " " + distribution
+                                + " (StackOverflowError, lower --quadratic-max to skip it)");
+                        continue;
+                    }
+                    if (child) {
+                        System.out.println(RESULT_PREFIX + result.toJson());
+                    } else {
+                        System.out.println(result);
+                        json.add(result.toJson());
+                    }
+                }
+            }
+        }
+        if (!child) {
+            BenchmarkRunner.writeJson(json, out);
+            System.out.println("Wrote " + json.size() + " results to " + out.toAbsolutePath());
+        }
+    }
+
+    private static boolean isQuadratic(String algorithm, InputDistribution distribution) {
+        //Lomuto partition with the last element as pivot degrades on every structured input
+        return QUADRATIC.contains(algorithm) || ("QuickSort".equals(algorithm) && distribution != InputDistribution.RANDOM);
+    }
+
+    static BenchmarkRunner.Result run(String algorithm, int size, InputDistribution distribution,
+            BenchmarkRunner.Options options) {
+        Consumer<int[]> sorter = ALGORITHMS.get(algorithm);
+        int[] input = distribution.generate(size, 42);
+        int batch = Math.max(1, BATCH_ELEMENTS / Math.max(1, size));
+        int[][] work = new int[batch][size];
+
+        BenchmarkRunner.Workload workload = new BenchmarkRunner.Workload() {
+            @Override
+            public void reset() {
+                for (int[] copy : work) {
+                    System.arraycopy(input, 0, copy, 0, size);
+                }
+            }
+
+            @Override
+            public long run() {
+                long checksum = 0;
+                for (int[] copy : work) {
+                    sorter.accept(copy);
+                    checksum += size == 0 ? 0 : copy[0] ^ copy[size - 1];
+                }
+                return checksum;
+            }
+
+            @Override
+            public int opsPerRun() {
+                return batch;
+            }
+        };
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("size", String.valueOf(size));
+        params.put("distribution", distribution.name());
+        return BenchmarkRunner.measure("sorting.algo." + algorithm, params, workload, options);
+    }
+
+}
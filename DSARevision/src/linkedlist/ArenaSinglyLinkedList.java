@@ -0,0 +1,349 @@
+package linkedlist;
+
+import java.util.Arrays;
+
+// Same list as SinglyLinkedList, but without a Node object per element.
+// Node i lives in slot i of two parallel arrays: data[i] is its value and next[i] the slot of the next node (NIL = -1).
+// That is 8 bytes per element instead of a 24 byte object (header, int, reference, padding) plus the pointer chasing.
+// Deleted slots are chained into a free list through next[] and reused by the next insert; when there is no free
+// slot left, both arrays grow by doubling. compact() lays the nodes out in list order, so a traversal reads both
+// arrays front to back.
+public class ArenaSinglyLinkedList {
+
+    private static final int NIL = -1;
+
+    private int[] data;
+    private int[] next;
+    private int head = NIL; // Slot of the first node
+    private int tail = NIL; // Slot of the last node, so insertAtEnd doesn't walk the list
+    private int freeHead = NIL; // First slot of the free list
+    private int used; // Slots below this were handed out at least once
+    private int size;
+
+    public ArenaSinglyLinkedList() {
+        this(16);
+    }
+
+    public ArenaSinglyLinkedList(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + initialCapacity);
+        }
+        data = new int[initialCapacity];
+        next = new int[initialCapacity];
+    }
+
+    // Takes a slot from the free list, or the next unused one, growing the arrays when they are full
+    private int allocate(int value) {
+        int slot;
+        if (freeHead != NIL) {
+            slot = freeHead;
+            freeHead = next[slot];
+        } else {
+            if (used == data.length) {
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * data.length);
+                if (capacity == data.length) {
+                    throw new IllegalStateException("List is full");
+                }
+                data = Arrays.copyOf(data, capacity);
+                next = Arrays.copyOf(next, capacity);
+            }
+            slot = used++;
+        }
+        data[slot] = value;
+        next[slot] = NIL;
+        size++;
+        return slot;
+    }
+
+    private void release(int slot) {
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    // 1. Check if the list is empty
+    public boolean isEmpty() {
+        return head == NIL;
+    }
+
+    // 2. Get Size/Length of the list, kept up to date by every insert and delete
+    public int size() {
+        return size;
+    }
+
+    // 3. Insertion at the Beginning (Prepend)
+    public void insertAtBeginning(int value) {
+        int slot = allocate(value);
+        next[slot] = head;
+        head = slot;
+        if (tail == NIL) {
+            tail = slot;
+        }
+    }
+
+    // 4. Insertion at the End
+    public void insertAtEnd(int value) {
+        int slot = allocate(value);
+        if (head == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    // 5. Insert at a Specific Position
+    public void insertAtPosition(int value, int position) {
+        if (position < 0) {
+            System.out.println("Position can't be negative");
+            return;
+        }
+        if (position == 0) {
+            insertAtBeginning(value);
+            return;
+        }
+        int current = slotBefore(position);
+        if (current == NIL) {
+            System.out.println("Position out of bounds");
+            return;
+        }
+        int slot = allocate(value);
+        next[slot] = next[current];
+        next[current] = slot;
+        if (current == tail) {
+            tail = slot;
+        }
+    }
+
+    // 6. Deletion at the Beginning
+    public void deleteFirst() {
+        if (head == NIL) return; // Empty list case
+        int first = head;
+        head = next[first];
+        if (head == NIL) {
+            tail = NIL;
+        }
+        release(first);
+    }
+
+    // 7. Deletion at the End
+    public void deleteLast() {
+        if (head == NIL) return;
+        if (next[head] == NIL) {
+            release(head);
+            head = NIL;
+            tail = NIL;
+            return;
+        }
+        int current = head;
+        while (next[next[current]] != NIL) {
+            current = next[current];
+        }
+        release(next[current]);
+        next[current] = NIL;
+        tail = current;
+    }
+
+    // 8. Delete at a Specific Position
+    public void deleteAtPosition(int position) {
+        if (head == NIL) return;
+        if (position < 0) {
+            System.out.println("Position can't be negative");
+            return;
+        }
+        if (position == 0) {
+            deleteFirst();
+            return;
+        }
+        int current = slotBefore(position);
+        if (current == NIL || next[current] == NIL) {
+            System.out.println("Position out of bounds");
+            return;
+        }
+        int removed = next[current];
+        next[current] = next[removed];
+        if (removed == tail) {
+            tail = current;
+        }
+        release(removed);
+    }
+
+    // Slot of the node at position - 1, NIL if the list is shorter
+    private int slotBefore(int position) {
+        int current = head;
+        int currentPosition = 0;
+        while (current != NIL && currentPosition < position - 1) {
+            current = next[current];
+            currentPosition++;
+        }
+        return current;
+    }
+
+    // 9. Search for an Element
+    public boolean search(int value) {
+        for (int current = head; current != NIL; current = next[current]) {
+            if (data[current] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 10. Get Element at a specific position
+    public int get(int position) {
+        if (position < 0) {
+            System.out.println("Position can't be negative");
+            return -1;
+        }
+        int current = head;
+        int currentPosition = 0;
+        while (current != NIL && currentPosition < position) {
+            current = next[current];
+            currentPosition++;
+        }
+        if (current == NIL) {
+            System.out.println("Position out of bounds");
+            return -1;
+        }
+        return data[current];
+    }
+
+    // 11. Reverse the linked list, only the next[] links change
+    public void reverse() {
+        int prev = NIL;
+        int current = head;
+        tail = head;
+        while (current != NIL) {
+            int following = next[current];
+            next[current] = prev;
+            prev = current;
+            current = following;
+        }
+        head = prev;
+    }
+
+    // 12. Print the list to the console
+    public void printList() {
+        for (int current = head; current != NIL; current = next[current]) {
+            System.out.print(data[current] + " -> ");
+        }
+        System.out.println("null");
+    }
+
+    // 13. Detect Cycle/Loop in linked list (Floyd, on slot numbers instead of references)
+    public boolean hasCycle() {
+        int slow = head;
+        int fast = head;
+        while (fast != NIL && next[fast] != NIL) {
+            slow = next[slow];
+            fast = next[next[fast]];
+            if (slow == fast) return true;
+        }
+        return false;
+    }
+
+    // 14. Move the nodes to slots 0 .. size - 1 in list order and drop the free list, so traversals are sequential
+    public void compact() {
+        int[] newData = new int[data.length];
+        int[] newNext = new int[data.length];
+        int count = 0;
+        for (int current = head; current != NIL; current = next[current]) {
+            newData[count] = data[current];
+            newNext[count] = count + 1;
+            count++;
+        }
+        if (count > 0) {
+            newNext[count - 1] = NIL;
+        }
+        data = newData;
+        next = newNext;
+        head = count > 0 ? 0 : NIL;
+        tail = count > 0 ? count - 1 : NIL;
+        freeHead = NIL;
+        used = count;
+    }
+
+    // Slots allocated by the arrays, including free ones
+    public int capacity() {
+        return data.length;
+    }
+
+    public static void main(String[] args) {
+
+        System.out.println("Arena Singly Linked List");
+        ArenaSinglyLinkedList list = new ArenaSinglyLinkedList();
+
+        list.insertAtEnd(1);
+        list.insertAtEnd(2);
+        list.insertAtBeginning(0);
+        list.insertAtEnd(3);
+        System.out.println("Size of list: " + list.size()); // Size of list: 4
+        System.out.println("Linked list after insertions:");
+        list.printList(); // 0 -> 1 -> 2 -> 3 -> null
+
+        list.deleteFirst();
+        list.deleteLast();
+        System.out.println("Linked list after deleting first and last:");
+        list.printList(); // 1 -> 2 -> null
+
+        list.insertAtPosition(10, 1);
+        System.out.println("Linked list after inserting 10 at position 1 (reuses a freed slot):");
+        list.printList(); // 1 -> 10 -> 2 -> null
+
+        list.deleteAtPosition(1);
+        list.reverse();
+        System.out.println("Linked list after deleting at position 1 and reversing:");
+        list.printList(); // 2 -> 1 -> null
+        System.out.println("Element at position 1: " + list.get(1) + ", search for 2: " + list.search(2));
+
+        // Create a list with cycle
+        ArenaSinglyLinkedList cycleList = new ArenaSinglyLinkedList();
+        cycleList.insertAtEnd(1);
+        cycleList.insertAtEnd(2);
+        cycleList.insertAtEnd(3);
+        cycleList.next[cycleList.tail] = cycleList.next[cycleList.head]; // create a loop at node 2
+        System.out.println("Cyclic list has cycle: " + cycleList.hasCycle()); // true
+
+        // Memory and traversal against the Node based list
+        int n = 10_000_000;
+        Runtime runtime = Runtime.getRuntime();
+        long before = usedMemory(runtime);
+        long start = System.nanoTime();
+        SinglyLinkedList nodes = new SinglyLinkedList();
+        for (int i = 0; i < n; i++) {
+            nodes.insertAtBeginning(i); // insertAtEnd walks the whole Node list every time
+        }
+        long nodeBuild = System.nanoTime() - start;
+        long nodeBytes = usedMemory(runtime) - before;
+        start = System.nanoTime();
+        boolean nodeFound = nodes.search(-1);
+        long nodeScan = System.nanoTime() - start;
+        nodes = null;
+
+        before = usedMemory(runtime);
+        start = System.nanoTime();
+        ArenaSinglyLinkedList arena = new ArenaSinglyLinkedList();
+        for (int i = 0; i < n; i++) {
+            arena.insertAtBeginning(i);
+        }
+        long arenaBuild = System.nanoTime() - start;
+        long arenaBytes = usedMemory(runtime) - before;
+        start = System.nanoTime();
+        boolean arenaFound = arena.search(-1);
+        long arenaScan = System.nanoTime() - start;
+        arena.compact();
+        start = System.nanoTime();
+        arena.search(-1);
+        long compactScan = System.nanoTime() - start;
+
+        System.out.println(n + " elements: Node list " + nodeBytes / n + " bytes/element, built in " + nodeBuild / 1_000_000
+                + " ms, full scan " + nodeScan / 1_000_000 + " ms; arena " + arenaBytes / n + " bytes/element, built in "
+                + arenaBuild / 1_000_000 + " ms, full scan " + arenaScan / 1_000_000 + " ms, after compact "
+                + compactScan / 1_000_000 + " ms (found " + nodeFound + ", " + arenaFound + ")");
+    }
+
+    private static long usedMemory(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -1,21 +1,44 @@
 package linkedlist;
 
+import java.util.Arrays;
+import java.util.Random;
+
+// Positional operations use an indexable skip list on top of the prev/next links.
+// Every node also gets a random number of levels (level i with probability 1/2^i) and at each level a forward link
+// to the next node that has that level, with a span: how many positions the link skips. Walking from the top level
+// and adding spans finds position p in O(log n) expected steps, and insert/delete only fix the links and spans of
+// the nodes passed on the way down. Level 0 is the plain list (forward[0] == next, span 1), so iteration,
+// printList and printListReverse work exactly as before.
 public class DoublyLinkedList {
 
+    private static final int MAX_LEVEL = 32;
+
     private class Node {
         int data;
         Node prev;
         Node next;
+        Node[] forward; // forward[i]: next node with more than i levels, forward[0] == next
+        int[] span; // span[i]: positions between this node and forward[i]
 
-        Node(int data) {
+        Node(int data, int levels) {
             this.data = data;
             this.prev = null;
             this.next = null;
+            this.forward = new Node[levels];
+            this.span = new int[levels];
         }
     }
 
     private Node head;
     private Node tail;
+    private final Node header = new Node(0, MAX_LEVEL); // Sentinel before position 0, at rank 0
+    private int levels = 1; // Levels in use
+    private int size;
+    private final Random random = new Random(); // Own seed per list; the levels only change the speed, never the result
+
+    // Scratch for the nodes passed on the way down and their ranks (position + 1)
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] rank = new int[MAX_LEVEL];
 
     public DoublyLinkedList() {
         head = null;
@@ -27,43 +50,19 @@ public class DoublyLinkedList {
         return head == null;
     }
 
-    // Get the size/length of the list
+    // Get the size/length of the list, kept up to date by every insert and delete
     public int size() {
-        int count = 0;
-        Node current = head;
-        while (current != null) {
-            count++;
-            current = current.next;
-        }
-        return count;
+        return size;
     }
 
     // Insert at the beginning
     public void insertAtBeginning(int data) {
-        Node newNode = new Node(data);
-
-        if (isEmpty()) {
-            head = newNode;
-            tail = newNode;
-        } else {
-            newNode.next = head;
-            head.prev = newNode;
-            head = newNode;
-        }
+        insertAt(0, data);
     }
 
     // Insert at the end
     public void insertAtEnd(int data) {
-        Node newNode = new Node(data);
-
-        if (isEmpty()) {
-            head = newNode;
-            tail = newNode;
-        } else {
-            tail.next = newNode;
-            newNode.prev = tail;
-            tail = newNode;
-        }
+        insertAt(size, data);
     }
 
     // Insert at a specific position
@@ -73,62 +72,24 @@ public class DoublyLinkedList {
             return;
         }
 
-        if (position == 0) {
-            insertAtBeginning(data);
-            return;
-        }
-
-        Node newNode = new Node(data);
-        Node current = head;
-        int currentPosition = 0;
-
-        while (current != null && currentPosition < position - 1) {
-            current = current.next;
-            currentPosition++;
-        }
-
-        if (current == null) {
+        if (position > size) {
             System.out.println("Position out of bounds.");
             return;
         }
 
-        newNode.next = current.next;
-        if (current.next != null) { // Avoid null pointer for insertion in last node
-            current.next.prev = newNode;
-        }
-        current.next = newNode;
-        newNode.prev = current;
-
-
-        if (newNode.next == null) tail = newNode;
+        insertAt(position, data);
     }
 
     // Delete the first node
     public void deleteFirst() {
         if (isEmpty()) return;
-
-        if (head == tail) { // Only one node
-            head = null;
-            tail = null;
-            return;
-        }
-        head = head.next;
-        head.prev = null;
-
+        removeAt(0);
     }
 
     // Delete the last node
     public void deleteLast() {
         if (isEmpty()) return;
-
-        if (head == tail) { // Only one node
-            head = null;
-            tail = null;
-            return;
-        }
-
-        tail = tail.prev;
-        tail.next = null;
+        removeAt(size - 1);
     }
 
     // Delete at a specific position
@@ -141,32 +102,97 @@ public class DoublyLinkedList {
             return;
         }
 
-        if (position == 0) {
-            deleteFirst();
+        if (position >= size)
+        {
+            System.out.println("Position out of bounds.");
             return;
         }
-      
-        Node current = head;
-        int currentPosition = 0;
-         while (current != null && currentPosition < position - 1)
-        {
-             current = current.next;
-             currentPosition++;
-         }
 
-         if (current == null || current.next == null)
-         {
-              System.out.println("Position out of bounds.");
-              return;
-          }
-      
-        current.next = current.next.next;
-        if (current.next != null) {
-            current.next.prev = current;
+        removeAt(position);
+    }
+
+    // Fills update[i] with the last node at level i whose rank is <= target, and rank[i] with its rank
+    private void findPredecessors(int target) {
+        Node x = header;
+        int r = 0;
+        for (int i = levels - 1; i >= 0; i--) {
+            while (x.forward[i] != null && r + x.span[i] <= target) {
+                r += x.span[i];
+                x = x.forward[i];
+            }
+            update[i] = x;
+            rank[i] = r;
         }
-        else {
-           tail = current;
+    }
+
+    // Inserts data so that it ends up at position (0 <= position <= size)
+    private void insertAt(int position, int data) {
+        findPredecessors(position);
+        int nodeLevels = 1 + Integer.numberOfTrailingZeros(random.nextInt() | (1 << (MAX_LEVEL - 1)));
+        for (int i = levels; i < nodeLevels; i++) {
+            update[i] = header;
+            rank[i] = 0;
         }
+        levels = Math.max(levels, nodeLevels);
+
+        Node newNode = new Node(data, nodeLevels);
+        for (int i = 0; i < nodeLevels; i++) {
+            Node before = update[i];
+            newNode.forward[i] = before.forward[i];
+            if (newNode.forward[i] != null) {
+                newNode.span[i] = before.span[i] - (position - rank[i]);
+            }
+            before.forward[i] = newNode;
+            before.span[i] = position - rank[i] + 1;
+        }
+        for (int i = nodeLevels; i < levels; i++) {
+            if (update[i].forward[i] != null) {
+                update[i].span[i]++; // The link now jumps over one more node
+            }
+        }
+
+        // Level 0 is the doubly linked list
+        newNode.next = newNode.forward[0];
+        newNode.prev = update[0] == header ? null : update[0];
+        if (newNode.prev != null) {
+            newNode.prev.next = newNode;
+        }
+        if (newNode.next != null) {
+            newNode.next.prev = newNode;
+        } else {
+            tail = newNode;
+        }
+        head = header.forward[0];
+        size++;
+    }
+
+    // Removes the node at position (0 <= position < size)
+    private void removeAt(int position) {
+        findPredecessors(position);
+        Node removed = update[0].forward[0];
+        for (int i = 0; i < levels; i++) {
+            Node before = update[i];
+            if (before.forward[i] == removed) {
+                before.span[i] += removed.span[i] - 1;
+                before.forward[i] = removed.forward[i];
+            } else if (before.forward[i] != null) {
+                before.span[i]--;
+            }
+        }
+        while (levels > 1 && header.forward[levels - 1] == null) {
+            levels--;
+        }
+
+        if (removed.next != null) {
+            removed.next.prev = removed.prev;
+        } else {
+            tail = removed.prev;
+        }
+        if (removed.prev != null) {
+            removed.prev.next = removed.next;
+        }
+        head = header.forward[0];
+        size--;
     }
 
       // Search for a data in the linked list
@@ -190,22 +216,35 @@ public class DoublyLinkedList {
              return -1; // Or throw an exception
          }
 
-        Node current = head;
-        int currentPosition = 0;
-        while(current != null && currentPosition < position)
-        {
-             current = current.next;
-            currentPosition++;
-         }
-
-        if (current == null) {
+        if (position >= size) {
             System.out.println("Position out of bounds.");
             return -1;
         }
-         
-         return current.data;
+
+        // Select: follow the links whose spans still fit, from the top level down, until rank position + 1
+        Node x = header;
+        int r = 0;
+        for (int i = levels - 1; i >= 0; i--) {
+            while (x.forward[i] != null && r + x.span[i] <= position + 1) {
+                r += x.span[i];
+                x = x.forward[i];
+            }
+        }
+        return x.data;
      }
 
+    // Position of the first node holding data (its rank), -1 if absent. The values are in no particular order,
+    // so this walks level 0; the spans only help to go from a position to a node, not from a value.
+    public int indexOf(int data) {
+        int position = 0;
+        for (Node current = head; current != null; current = current.next, position++) {
+            if (current.data == data) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
     // Reverse the list
     public void reverse() {
        Node current = head;
@@ -221,6 +260,26 @@ public class DoublyLinkedList {
           if (current.prev == null) head = current;
           current = current.prev;
        }
+       rebuildIndex();
+    }
+
+    // Relinks the skip levels in the new order; every node keeps its number of levels. O(n), like reverse itself.
+    private void rebuildIndex() {
+        Arrays.fill(update, header);
+        Arrays.fill(rank, 0);
+        int r = 0;
+        for (Node current = head; current != null; current = current.next) {
+            r++;
+            for (int i = 0; i < current.forward.length; i++) {
+                update[i].forward[i] = current;
+                update[i].span[i] = r - rank[i];
+                update[i] = current;
+                rank[i] = r;
+            }
+        }
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            update[i].forward[i] = null;
+        }
     }
 
 
@@ -280,6 +339,7 @@ public class DoublyLinkedList {
         System.out.println("Search for 5: " + list.search(5)); // false
       
         System.out.println("Element at position 1: " + list.get(1)); // Element at position 1: 2
+        System.out.println("Position of 2: " + list.indexOf(2)); // Position of 2: 1
       
         System.out.println("Doubly linked list in reverse order");
         list.printListReverse(); // 2 <-> 1 <-> null
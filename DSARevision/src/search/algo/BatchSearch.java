@@ -0,0 +1,152 @@
+package search.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import sorting.algo.PrimitiveSort;
+
+//problem: Look up many keys in one sorted int[] at once (e.g. the probe side of a join), faster than calling
+//binary search once per key.
+
+//logic:
+//1. One binary search on a large array is a chain of dependent cache misses: the next probe address is known
+//   only after the previous load returns, so the CPU spends most of the time waiting.
+//2. Interleaving (sparse batches): run GROUP searches in lockstep. Every level does one branchless step
+//   (base += arr[base + half] < key ? half : 0) for each search of the group. The GROUP loads of a level are
+//   independent of each other, so the memory system serves them in parallel instead of one after the other.
+//3. Merge (dense batches): when there are many queries compared to the array size, sort the queries
+//   (radix co-sort that remembers their original slots) and sweep the array once. Each next answer is found
+//   by galloping (ExponentialSearch.lowerBound) from the previous one, O(log gap) instead of O(log n).
+//   Queries that are already sorted skip the sort.
+//4. lowerBounds picks merge when queries.length * DENSE_RATIO >= arr.length, interleaving otherwise.
+
+//Time Complexity: interleaved O(m log n) with ~GROUP misses in flight, merge O(m + m log(n / m)).
+//Space Complexity: O(m) for the output, plus O(m) for the sorted copy of the queries in merge mode.
+
+public class BatchSearch {
+
+    public static final int GROUP = 16; //Searches in flight at the same time
+    public static final int DENSE_RATIO = 128; //Merge once there is at least one query per DENSE_RATIO keys
+
+    public static void main(String[] args) {
+
+        int[] arr = {1, 3, 3, 5, 8, 13, 21};
+        int[] queries = {13, 4, 1, 22, 3};
+        System.out.println("Array:   " + Arrays.toString(arr));
+        System.out.println("Queries: " + Arrays.toString(queries));
+        System.out.println("search:      " + Arrays.toString(search(arr, queries)));
+        System.out.println("lowerBounds: " + Arrays.toString(lowerBounds(arr, queries)));
+
+        int size = 10_000_000;
+        Random random = new Random(42);
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = 4 * i + random.nextInt(4);
+        }
+        for (int m : new int[] {1 << 16, 1 << 22}) {
+            int[] probe = random.ints(m, 0, 4 * size).toArray();
+            for (int round = 1; round <= 3; round++) {
+                long start = System.nanoTime();
+                int[] one = new int[m];
+                for (int i = 0; i < m; i++) {
+                    one[i] = BinarySearch.binarySearch(sorted, probe[i]);
+                }
+                long single = System.nanoTime() - start;
+                start = System.nanoTime();
+                int[] batch = search(sorted, probe);
+                long batched = System.nanoTime() - start;
+                System.out.println(m + " queries, round " + round + ": one at a time " + single / 1_000_000
+                        + " ms, batch " + batched / 1_000_000 + " ms, same answers: " + Arrays.equals(one, batch));
+            }
+        }
+    }
+
+    //Index of every query in arr, -1 if absent. A repeated key gives its first occurrence; BinarySearch.binarySearch
+    //may return any of them, so the two only agree on distinct keys (as in the timing loop below).
+    public static int[] search(int[] arr, int[] queries) {
+        int[] out = lowerBounds(arr, queries);
+        for (int i = 0; i < out.length; i++) {
+            int position = out[i];
+            if (position == arr.length || arr[position] != queries[i]) {
+                out[i] = -1;
+            }
+        }
+        return out;
+    }
+
+    //For every query, the first index whose key is >= query, arr.length if there is none
+    public static int[] lowerBounds(int[] arr, int[] queries) {
+        int[] out = new int[queries.length];
+        lowerBounds(arr, queries, out);
+        return out;
+    }
+
+    public static void lowerBounds(int[] arr, int[] queries, int[] out) {
+        if ((long) queries.length * DENSE_RATIO >= arr.length) {
+            lowerBoundsMerge(arr, queries, out);
+        } else {
+            lowerBoundsInterleaved(arr, queries, out);
+        }
+    }
+
+    //Branchless binary searches, GROUP at a time in lockstep
+    public static void lowerBoundsInterleaved(int[] arr, int[] queries, int[] out) {
+        checkOutput(queries, out);
+        int n = arr.length;
+        int m = queries.length;
+        if (n == 0) {
+            Arrays.fill(out, 0, m, 0);
+            return;
+        }
+        int[] base = new int[GROUP];
+        for (int start = 0; start < m; start += GROUP) {
+            int group = Math.min(GROUP, m - start);
+            Arrays.fill(base, 0);
+            int length = n;
+            while (length > 1) {//The same halving sequence for every search, so they stay in step
+                int half = length >>> 1;
+                for (int j = 0; j < group; j++) {
+                    int b = base[j];
+                    base[j] = arr[b + half] < queries[start + j] ? b + half : b;
+                }
+                length -= half;
+            }
+            for (int j = 0; j < group; j++) {
+                int b = base[j];
+                out[start + j] = arr[b] < queries[start + j] ? b + 1 : b;
+            }
+        }
+    }
+
+    //Sorts the queries and sweeps arr once, galloping from each answer to the next
+    public static void lowerBoundsMerge(int[] arr, int[] queries, int[] out) {
+        checkOutput(queries, out);
+        int m = queries.length;
+        boolean sorted = true;
+        for (int i = 1; i < m && sorted; i++) {
+            sorted = queries[i - 1] <= queries[i];
+        }
+        int[] keys = queries;
+        int[] slots = null;
+        if (!sorted) {
+            keys = queries.clone();
+            slots = new int[m];
+            for (int i = 0; i < m; i++) {
+                slots[i] = i;
+            }
+            PrimitiveSort.sort(keys, slots);
+        }
+        int position = 0;
+        for (int i = 0; i < m; i++) {
+            position = ExponentialSearch.lowerBound(arr, position, arr.length, keys[i]);
+            out[slots == null ? i : slots[i]] = position;
+        }
+    }
+
+    private static void checkOutput(int[] queries, int[] out) {
+        if (out.length < queries.length) {
+            throw new IllegalArgumentException("Output has room for " + out.length + " positions, need " + queries.length);
+        }
+    }
+
+}
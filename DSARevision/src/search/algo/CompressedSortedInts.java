@@ -0,0 +1,395 @@
+package search.algo;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+//problem: Store a large sorted set of int IDs in far less than 4 bytes per ID and still look them up quickly,
+//decoding only the block the answer is in.
+
+//logic:
+//1. Cut the sorted values into blocks of BLOCK (128). A block header keeps the first value; the other 127 values are
+//   stored as deltas to their predecessor, which are small when the IDs are dense.
+//2. Frame of reference with patching (PFOR): all deltas of a block are bit packed with one width b, chosen to
+//   minimize the block's size. A delta that needs more than b bits is an exception: its low b bits stay in the
+//   packed slot and its high bits are stored on the side with its index, and patched back in when decoding.
+//   A single large gap therefore doesn't force a wide b onto the whole block.
+//3. The block headers (first values) form the bottom level of a skip list; every level above keeps every SKIP-th
+//   entry of the level below. A lookup runs JumpSearch's idea on it: scan the small top level, then at every level
+//   jump forward at most SKIP entries before going down, and land on the one block that can hold the key.
+//4. Only that block is decoded, value by value from its first value, and the decoding stops at the answer.
+//   Iteration decodes one block at a time into a 128 int buffer.
+
+//Time Complexity: O(n) to build, O(SKIP * log_SKIP(n / BLOCK) + BLOCK) per lookup, O(1) amortized per iterated value.
+//Space Complexity: about b bits per value for the typical delta width b, plus 13 bytes per block of 128.
+
+public class CompressedSortedInts {
+
+    public static final int BLOCK = 128;
+    public static final int SKIP = 16;
+    private static final int EXCEPTION_BITS = 40; //Cost of an exception: its index and its high bits
+
+    private final int n;
+    private final int blocks;
+    private final int[] blockFirst;
+    private final int[] blockWord; //First word of the block's packed deltas
+    private final byte[] blockBits;
+    private final int[] blockException; //Exceptions of block b are blockException[b] .. blockException[b + 1] - 1
+    private final byte[] exceptionIndex; //Delta index inside its block, 1 .. BLOCK - 1
+    private final int[] exceptionHigh; //delta >>> bits
+    private final long[] words;
+    private final int[][] skip; //skip[0] = blockFirst, skip[k][j] = skip[k - 1][j * SKIP]
+
+    public static void main(String[] args) {
+
+        int[] ids = {3, 5, 6, 9, 1000, 1001, 1005, 2_000_000_000};
+        CompressedSortedInts small = new CompressedSortedInts(ids);
+        System.out.println("IDs: " + Arrays.toString(ids));
+        System.out.println("contains(1001) = " + small.contains(1001) + ", contains(7) = " + small.contains(7)
+                + ", lowerBound(7) = " + small.lowerBound(7) + ", get(7) = " + small.get(7));
+        System.out.println(small);
+
+        Random random = new Random(42);
+        int n = 50_000_000;
+        int[] dense = new int[n];
+        int[] withGaps = new int[n];
+        for (int i = 1; i < n; i++) {
+            dense[i] = dense[i - 1] + 1 + random.nextInt(8);
+            withGaps[i] = withGaps[i - 1] + (random.nextInt(100) == 0 ? 1 + random.nextInt(1 << 12) : 1 + random.nextInt(4));
+        }
+        runCase("dense (gaps 1..8)", dense, random);
+        runCase("1% large gaps", withGaps, random);
+    }
+
+    private static void runCase(String name, int[] ids, Random random) {
+        long start = System.nanoTime();
+        CompressedSortedInts set = new CompressedSortedInts(ids);
+        long build = System.nanoTime() - start;
+        System.out.println("\n" + name + ": " + set + ", built in " + build / 1_000_000 + " ms");
+
+        int[] out = new int[ids.length];
+        int[] copy = new int[ids.length];
+        int[] queries = new int[1 << 20];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = ids[random.nextInt(ids.length)] + (i & 1); //Half hits, half mostly misses
+        }
+        for (int round = 1; round <= 3; round++) {
+            start = System.nanoTime();
+            set.decode(out);
+            long decode = System.nanoTime() - start;
+            start = System.nanoTime();
+            System.arraycopy(ids, 0, copy, 0, ids.length);
+            long arraycopy = System.nanoTime() - start;
+            start = System.nanoTime();
+            long sum = 0;
+            PrimitiveIterator.OfInt values = set.iterator();
+            while (values.hasNext()) {
+                sum += values.nextInt();
+            }
+            long iterate = System.nanoTime() - start;
+            start = System.nanoTime();
+            long found = 0;
+            for (int query : queries) {
+                found += set.lowerBound(query);
+            }
+            long lookup = System.nanoTime() - start;
+            start = System.nanoTime();
+            long expected = 0;
+            for (int query : queries) {
+                int position = Arrays.binarySearch(ids, query);
+                expected += position >= 0 ? firstOf(ids, position) : -position - 1;
+            }
+            long binary = System.nanoTime() - start;
+            System.out.println("Round " + round + ": decode " + ids.length * 1000L / Math.max(1, decode)
+                    + " M ints/s (raw arraycopy " + ids.length * 1000L / Math.max(1, arraycopy) + " M ints/s), iterate "
+                    + ids.length * 1000L / Math.max(1, iterate) + " M ints/s, lowerBound " + lookup / queries.length
+                    + " ns vs raw binary search " + binary / queries.length + " ns, same answers: "
+                    + (Arrays.equals(out, ids) && found == expected && sum == Arrays.stream(ids).asLongStream().sum()));
+        }
+    }
+
+    private static int firstOf(int[] ids, int position) {
+        while (position > 0 && ids[position - 1] == ids[position]) {
+            position--;
+        }
+        return position;
+    }
+
+    //sorted must be in ascending order; duplicates are allowed
+    public CompressedSortedInts(int[] sorted) {
+        this.n = sorted.length;
+        this.blocks = (n + BLOCK - 1) / BLOCK;
+        this.blockFirst = new int[blocks];
+        this.blockWord = new int[blocks + 1];
+        this.blockBits = new byte[blocks];
+        this.blockException = new int[blocks + 1];
+
+        int[] deltas = new int[BLOCK];
+        int[] widthCount = new int[33];
+        long[] packed = new long[16];
+        byte[] excIndex = new byte[16];
+        int[] excHigh = new int[16];
+        int wordCount = 0;
+        int exceptionCount = 0;
+        for (int b = 0; b < blocks; b++) {
+            int from = b * BLOCK;
+            int length = Math.min(BLOCK, n - from);
+            blockFirst[b] = sorted[from];
+            Arrays.fill(widthCount, 0);
+            for (int i = 1; i < length; i++) {
+                if (sorted[from + i] < sorted[from + i - 1]) {
+                    throw new IllegalArgumentException("Input is not sorted at index " + (from + i));
+                }
+                deltas[i] = sorted[from + i] - sorted[from + i - 1]; //Unsigned, a gap can be up to 2^32 - 1
+                widthCount[32 - Integer.numberOfLeadingZeros(deltas[i])]++;
+            }
+            if (b > 0 && sorted[from] < sorted[from - 1]) {
+                throw new IllegalArgumentException("Input is not sorted at index " + from);
+            }
+            int bits = bestWidth(widthCount, length - 1);
+            blockBits[b] = (byte) bits;
+
+            int blockWords = (int) (((long) (length - 1) * bits + 63) >>> 6);
+            if (wordCount + blockWords > packed.length) {
+                packed = Arrays.copyOf(packed, Math.max(2 * packed.length, wordCount + blockWords));
+            }
+            long mask = bits == 0 ? 0 : -1L >>> (64 - bits);
+            for (int i = 1; i < length; i++) {
+                long low = deltas[i] & 0xffffffffL & mask;
+                long bit = (long) (i - 1) * bits;
+                int word = wordCount + (int) (bit >>> 6);
+                int shift = (int) (bit & 63);
+                if (bits > 0) {//Width 0 (all gaps equal to 0 or exceptions) takes no words at all
+                    packed[word] |= low << shift;
+                }
+                if (shift + bits > 64) {
+                    packed[word + 1] |= low >>> (64 - shift);
+                }
+                if (bits < 32 && deltas[i] >>> bits != 0) {
+                    if (exceptionCount == excIndex.length) {
+                        excIndex = Arrays.copyOf(excIndex, 2 * exceptionCount);
+                        excHigh = Arrays.copyOf(excHigh, 2 * exceptionCount);
+                    }
+                    excIndex[exceptionCount] = (byte) i;
+                    excHigh[exceptionCount] = deltas[i] >>> bits;
+                    exceptionCount++;
+                }
+            }
+            wordCount += blockWords;
+            blockWord[b + 1] = wordCount;
+            blockException[b + 1] = exceptionCount;
+        }
+        this.words = Arrays.copyOf(packed, wordCount + 1); //One spare word, a read may look one word ahead
+        this.exceptionIndex = Arrays.copyOf(excIndex, exceptionCount);
+        this.exceptionHigh = Arrays.copyOf(excHigh, exceptionCount);
+
+        int levels = 1;
+        for (int length = blocks; length > SKIP; length = (length + SKIP - 1) / SKIP) {
+            levels++;
+        }
+        this.skip = new int[levels][];
+        skip[0] = blockFirst;
+        for (int k = 1; k < levels; k++) {
+            int[] below = skip[k - 1];
+            skip[k] = new int[(below.length + SKIP - 1) / SKIP];
+            for (int j = 0; j < skip[k].length; j++) {
+                skip[k][j] = below[j * SKIP];
+            }
+        }
+    }
+
+    //Width that minimizes packed bits + exception bits for the given histogram of delta widths
+    private static int bestWidth(int[] widthCount, int deltas) {
+        int best = 32;
+        long bestCost = 32L * deltas;
+        int wider = 0; //Deltas that need more than b bits
+        for (int b = 32; b >= 0; b--) {
+            long cost = (long) b * deltas + (long) wider * EXCEPTION_BITS;
+            if (cost <= bestCost) {
+                best = b;
+                bestCost = cost;
+            }
+            wider += widthCount[b];
+        }
+        return best;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    //Value at sorted position index
+    public int get(int index) {
+        if (index < 0 || index >= n) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for " + n + " values");
+        }
+        int b = index / BLOCK;
+        int value = blockFirst[b];
+        int bits = blockBits[b];
+        long mask = bits == 0 ? 0 : -1L >>> (64 - bits);
+        int exception = blockException[b];
+        int exceptionEnd = blockException[b + 1];
+        for (int i = 1; i <= index - b * BLOCK; i++) {
+            int delta = unpack(blockWord[b], i - 1, bits, mask);
+            if (exception < exceptionEnd && exceptionIndex[exception] == i) {
+                delta |= exceptionHigh[exception++] << bits;
+            }
+            value += delta;
+        }
+        return value;
+    }
+
+    //First position whose value is >= key, size() if there is none
+    public int lowerBound(int key) {
+        int b = lastBlockBelow(key);
+        if (b < 0) {
+            return 0;
+        }
+        //The answer is in block b, or it is the first value of block b + 1
+        int from = b * BLOCK;
+        int length = Math.min(BLOCK, n - from);
+        int value = blockFirst[b];
+        int bits = blockBits[b];
+        long mask = bits == 0 ? 0 : -1L >>> (64 - bits);
+        int word = blockWord[b];
+        int exception = blockException[b];
+        int exceptionEnd = blockException[b + 1];
+        for (int i = 1; i < length; i++) {
+            int delta = unpack(word, i - 1, bits, mask);
+            if (exception < exceptionEnd && exceptionIndex[exception] == i) {
+                delta |= exceptionHigh[exception++] << bits;
+            }
+            value += delta;
+            if (value >= key) {
+                return from + i;
+            }
+        }
+        return from + length;
+    }
+
+    public boolean contains(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    //Position of key (the first one if it repeats), -1 if absent
+    public int indexOf(int key) {
+        int position = lowerBound(key);
+        return position < n && get(position) == key ? position : -1;
+    }
+
+    //Last block whose first value is < key, -1 if there is none: jump search down the skip levels
+    private int lastBlockBelow(int key) {
+        if (blocks == 0 || blockFirst[0] >= key) {
+            return -1;
+        }
+        int p = 0; //skip[k][p] < key at every level
+        for (int k = skip.length - 1; k >= 0; k--) {
+            int[] level = skip[k];
+            int limit = k == skip.length - 1 ? level.length : Math.min(level.length, p + SKIP);
+            while (p + 1 < limit && level[p + 1] < key) {
+                p++;
+            }
+            if (k > 0) {
+                p *= SKIP;
+            }
+        }
+        return p;
+    }
+
+    //Delta i (0 based, without the exception bits) of the block whose packed deltas start at firstWord
+    private int unpack(int firstWord, int i, int bits, long mask) {
+        long bit = (long) i * bits;
+        int word = firstWord + (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = words[word] >>> shift;
+        if (shift + bits > 64) {
+            value |= words[word + 1] << (64 - shift);
+        }
+        return (int) (value & mask);
+    }
+
+    //Decodes block b into out[offset, offset + length) and returns length
+    private int decodeBlock(int b, int[] out, int offset) {
+        int length = Math.min(BLOCK, n - b * BLOCK);
+        int bits = blockBits[b];
+        long mask = bits == 0 ? 0 : -1L >>> (64 - bits);
+        int word = blockWord[b];
+        for (int i = 1; i < length; i++) {//Unpack all deltas first, the loop has no dependency between iterations
+            out[offset + i] = unpack(word, i - 1, bits, mask);
+        }
+        for (int e = blockException[b]; e < blockException[b + 1]; e++) {
+            out[offset + exceptionIndex[e]] |= exceptionHigh[e] << bits;
+        }
+        int value = blockFirst[b];
+        out[offset] = value;
+        for (int i = 1; i < length; i++) {
+            value += out[offset + i];
+            out[offset + i] = value;
+        }
+        return length;
+    }
+
+    //Decodes every value into out, which needs size() slots
+    public void decode(int[] out) {
+        if (out.length < n) {
+            throw new IllegalArgumentException("Output has room for " + out.length + " values, need " + n);
+        }
+        for (int b = 0; b < blocks; b++) {
+            decodeBlock(b, out, b * BLOCK);
+        }
+    }
+
+    //Values in ascending order, decoded one block at a time
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private final int[] buffer = new int[BLOCK];
+            private int block;
+            private int length;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < length || block < blocks;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == length) {
+                    if (block == blocks) {
+                        throw new NoSuchElementException();
+                    }
+                    length = decodeBlock(block++, buffer, 0);
+                    next = 0;
+                }
+                return buffer[next++];
+            }
+        };
+    }
+
+    public int blocks() {
+        return blocks;
+    }
+
+    public int exceptions() {
+        return exceptionIndex.length;
+    }
+
+    //Bytes of the encoded values, headers and skip levels
+    public long sizeInBytes() {
+        long bytes = (long) words.length * Long.BYTES + exceptionIndex.length + (long) exceptionHigh.length * Integer.BYTES
+                + (long) blocks * (Integer.BYTES + 1) + 2L * (blocks + 1) * Integer.BYTES;
+        for (int k = 1; k < skip.length; k++) {
+            bytes += (long) skip[k].length * Integer.BYTES;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+                "CompressedSortedInts{values=%d, blocks=%d, exceptions=%d, size=%d bytes (%.2f bits/value, raw int[] 32)}",
+                n, blocks, exceptions(), sizeInBytes(), n == 0 ? 0.0 : sizeInBytes() * 8.0 / n);
+    }
+
+}
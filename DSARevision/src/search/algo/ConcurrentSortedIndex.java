@@ -0,0 +1,367 @@
+package search.algo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import sorting.algo.SortEngine;
+
+//problem: A sorted int set that many threads search all the time while a background job now and then adds keys.
+//Readers must never wait and never see a half updated array.
+
+//logic:
+//1. Everything a reader needs is in one immutable Snapshot: the large sorted base array and a small sorted delta
+//   array of keys added since the base was built. The current snapshot is published through a VarHandle with
+//   release / acquire, so a reader that loads it sees both arrays completely filled in.
+//2. Reads take the snapshot once and search both arrays (BinarySearch for contains, ExponentialSearch.lowerBound
+//   for ranks). No locks, no retries: every read finishes in O(log n) steps whatever the writers do (wait-free).
+//3. Writes are serialized by a lock that readers never touch. add copies the delta with the new key inserted
+//   (copy on write, cheap because the delta is small) and publishes a new snapshot; addAll sorts a batch and
+//   merges it into the delta in one copy.
+//4. When the delta reaches mergeThreshold keys, a background thread merges base and that delta into a new base,
+//   without holding the lock. Keys added meanwhile stay in the live delta. When the merge is done, the new snapshot
+//   gets the new base and only the keys of the live delta that were not merged.
+//   Old snapshots are never changed, only dropped, so readers still using them stay correct.
+//   Merges hold mergeLock from reading the snapshot to publishing the new base, so two merges never build on the
+//   same base and the later one can't publish a stale base over the earlier one's.
+//5. After close() the index stays usable: adds no longer start background merges, and flush merges on the
+//   calling thread (still under mergeLock, so concurrent flushes and a merge left on the executor take turns).
+
+//Time Complexity: reads O(log n), add O(delta), background merge O(n + delta).
+//Space Complexity: O(n) for the base, plus a second base while a merge runs.
+
+public class ConcurrentSortedIndex implements AutoCloseable {
+
+    public static final int DEFAULT_MERGE_THRESHOLD = 4096;
+
+    //One consistent version of the set, never modified after it is published
+    private static final class Snapshot {
+        final int[] base;
+        final int[] delta;
+        final long version;
+
+        Snapshot(int[] base, int[] delta, long version) {
+            this.base = base;
+            this.delta = delta;
+            this.version = version;
+        }
+    }
+
+    private Snapshot snapshot; //Accessed through SNAPSHOT
+    private final Object writeLock = new Object();
+    private final Object mergeLock = new Object(); //Held for a whole mergeDelta, taken before writeLock
+    private final int mergeThreshold;
+    private final ExecutorService merger;
+    private Future<?> pendingMerge; //Guarded by writeLock
+    private final AtomicLong merges = new AtomicLong();
+
+    private static final VarHandle SNAPSHOT;
+
+    static {
+        try {
+            SNAPSHOT = MethodHandles.lookup().findVarHandle(ConcurrentSortedIndex.class, "snapshot", Snapshot.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+
+        try (ConcurrentSortedIndex small = new ConcurrentSortedIndex(new int[] {10, 20, 30}, 4)) {
+            small.add(25);
+            small.addAll(new int[] {5, 20, 40});
+            System.out.println("After adds: " + Arrays.toString(small.toArray()) + ", contains(25) = " + small.contains(25)
+                    + ", rank(26) = " + small.lowerBound(26));
+            small.flush();
+            System.out.println("After merge: " + small);
+        }
+
+        //After close, flushes run on the callers' threads; concurrent ones must not lose or duplicate keys
+        ConcurrentSortedIndex closed = new ConcurrentSortedIndex(new int[0], 64);
+        closed.close();
+        int writes = 200_000;
+        Thread[] flushers = new Thread[3];
+        AtomicBoolean stop = new AtomicBoolean();
+        for (int f = 0; f < flushers.length; f++) {
+            flushers[f] = new Thread(() -> {
+                while (!stop.get()) {
+                    try {
+                        closed.flush();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            flushers[f].start();
+        }
+        for (int key = 0; key < writes; key++) {
+            closed.add(key);
+        }
+        stop.set(true);
+        for (Thread flusher : flushers) {
+            flusher.join();
+        }
+        int missing = 0;
+        for (int key = 0; key < writes; key++) {
+            missing += closed.contains(key) ? 0 : 1;
+        }
+        System.out.println("Flushes after close: " + missing + " of " + writes + " added keys missing, size "
+                + closed.size() + " (expected " + writes + "), " + closed);
+
+        //Readers hammer the index while a writer adds keys; a key a reader has seen must never disappear
+        int n = 5_000_000;
+        int[] base = new int[n];
+        for (int i = 0; i < n; i++) {
+            base[i] = 2 * i; //Even keys; the writer adds odd ones
+        }
+        try (ConcurrentSortedIndex index = new ConcurrentSortedIndex(base)) {
+            long runNanos = 1_000_000_000L;
+            int readers = 3;
+            long[] reads = new long[readers];
+            long[] errors = new long[readers];
+            Thread[] threads = new Thread[readers];
+            for (int r = 0; r < readers; r++) {
+                int id = r;
+                threads[r] = new Thread(() -> {
+                    Random random = new Random(id);
+                    long end = System.nanoTime() + runNanos;
+                    while (System.nanoTime() < end) {
+                        int key = random.nextInt(2 * n);
+                        boolean before = index.contains(key);
+                        if ((key % 2 == 0 && !before) || (before && !index.contains(key))) {
+                            errors[id]++; //A base key is missing, or a key vanished between two reads
+                        }
+                        reads[id]++;
+                    }
+                });
+                threads[r].start();
+            }
+            Random random = new Random(99);
+            long end = System.nanoTime() + runNanos;
+            int added = 0;
+            while (System.nanoTime() < end) {
+                if (index.add(2 * random.nextInt(n) + 1)) {
+                    added++;
+                }
+                if (added % 1000 == 0) {
+                    Thread.yield(); //An occasional writer, not a second busy thread
+                }
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            index.flush();
+            System.out.println("Readers: " + Arrays.stream(reads).sum() + " lookups, " + Arrays.stream(errors).sum()
+                    + " inconsistent; writer added " + added + " keys, " + index + ", size check: "
+                    + (index.size() == n + added));
+        }
+    }
+
+    public ConcurrentSortedIndex(int[] keys) {
+        this(keys, DEFAULT_MERGE_THRESHOLD);
+    }
+
+    //keys in any order; duplicates are dropped. The array is copied.
+    public ConcurrentSortedIndex(int[] keys, int mergeThreshold) {
+        if (mergeThreshold < 1) {
+            throw new IllegalArgumentException("mergeThreshold must be at least 1, got " + mergeThreshold);
+        }
+        this.mergeThreshold = mergeThreshold;
+        this.merger = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ConcurrentSortedIndex-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SNAPSHOT.setRelease(this, new Snapshot(sortedDistinct(keys.clone()), new int[0], 0));
+    }
+
+    private Snapshot current() {
+        return (Snapshot) SNAPSHOT.getAcquire(this);
+    }
+
+    public boolean contains(int key) {
+        Snapshot s = current();
+        return BinarySearch.binarySearch(s.base, key) >= 0 || BinarySearch.binarySearch(s.delta, key) >= 0;
+    }
+
+    //Number of keys < key, which is the position key has or would have in the sorted set
+    public int lowerBound(int key) {
+        Snapshot s = current();
+        return ExponentialSearch.lowerBound(s.base, 0, s.base.length, key)
+                + ExponentialSearch.lowerBound(s.delta, 0, s.delta.length, key);
+    }
+
+    public int size() {
+        Snapshot s = current();
+        return s.base.length + s.delta.length;
+    }
+
+    //All keys of one snapshot, sorted
+    public int[] toArray() {
+        Snapshot s = current();
+        return merge(s.base, s.delta);
+    }
+
+    //Adds key and returns true if it was not in the set yet
+    public boolean add(int key) {
+        synchronized (writeLock) {
+            Snapshot s = current();
+            if (BinarySearch.binarySearch(s.base, key) >= 0) {
+                return false;
+            }
+            int position = ExponentialSearch.lowerBound(s.delta, 0, s.delta.length, key);
+            if (position < s.delta.length && s.delta[position] == key) {
+                return false;
+            }
+            int[] delta = new int[s.delta.length + 1];
+            System.arraycopy(s.delta, 0, delta, 0, position);
+            delta[position] = key;
+            System.arraycopy(s.delta, position, delta, position + 1, s.delta.length - position);
+            publish(s.base, delta, s.version);
+            return true;
+        }
+    }
+
+    //Adds a batch with one copy of the delta; returns how many keys were new
+    public int addAll(int[] keys) {
+        int[] batch = sortedDistinct(keys.clone());
+        synchronized (writeLock) {
+            Snapshot s = current();
+            int fresh = 0;
+            for (int key : batch) {//Drop keys that are already in the set
+                if (BinarySearch.binarySearch(s.base, key) < 0 && BinarySearch.binarySearch(s.delta, key) < 0) {
+                    batch[fresh++] = key;
+                }
+            }
+            int[] delta = merge(s.delta, Arrays.copyOf(batch, fresh));
+            publish(s.base, delta, s.version);
+            return delta.length - s.delta.length;
+        }
+    }
+
+    //Caller holds writeLock, and so does close while it shuts the merger down
+    private void publish(int[] base, int[] delta, long version) {
+        SNAPSHOT.setRelease(this, new Snapshot(base, delta, version + 1));
+        if (delta.length >= mergeThreshold && !merger.isShutdown() && (pendingMerge == null || pendingMerge.isDone())) {
+            pendingMerge = merger.submit(this::mergeDelta);
+        }
+    }
+
+    //Runs on the merge thread (or in flush after close): base + delta into a new base, while writers keep adding to
+    //the live delta. Only merges change the base, so under mergeLock start.base is still the live base at the end.
+    private void mergeDelta() {
+        synchronized (mergeLock) {
+            Snapshot start = current();
+            if (start.delta.length == 0) {
+                return;
+            }
+            int[] base = merge(start.base, start.delta);
+            synchronized (writeLock) {
+                Snapshot live = current();
+                int[] remaining = difference(live.delta, start.delta); //Added while merging
+                SNAPSHOT.setRelease(this, new Snapshot(base, remaining, live.version + 1));
+            }
+            merges.incrementAndGet();
+        }
+    }
+
+    //Merges the current delta into the base and waits for it; after close the merge runs on the calling thread
+    public void flush() throws InterruptedException {
+        Future<?> merge;
+        synchronized (writeLock) {
+            if (merger.isShutdown()) {
+                merge = null;
+            } else {
+                merge = merger.submit(this::mergeDelta);
+                pendingMerge = merge;
+            }
+        }
+        if (merge == null) {
+            mergeDelta();
+            return;
+        }
+        try {
+            merge.get();
+        } catch (ExecutionException e) {//mergeDelta throws no checked exceptions
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    public long merges() {
+        return merges.get();
+    }
+
+    //Stops the merge thread and waits up to a minute for a running merge. If interrupted while waiting,
+    //returns with the interrupt flag set.
+    @Override
+    public void close() {
+        synchronized (writeLock) {//No publish can submit between its isShutdown check and the submit
+            merger.shutdown();
+        }
+        try {
+            merger.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        Snapshot s = current();
+        return "ConcurrentSortedIndex{base=" + s.base.length + ", delta=" + s.delta.length + ", version=" + s.version
+                + ", merges=" + merges.get() + "}";
+    }
+
+    //Sorts keys in place and returns the distinct ones
+    private static int[] sortedDistinct(int[] keys) {
+        SortEngine.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return distinct == keys.length ? keys : Arrays.copyOf(keys, distinct);
+    }
+
+    //Union of two sorted, distinct arrays with no key in both
+    private static int[] merge(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            out[k++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+        System.arraycopy(a, i, out, k, a.length - i);
+        System.arraycopy(b, j, out, k + a.length - i, b.length - j);
+        return out;
+    }
+
+    //Keys of a that are not in b, both sorted
+    private static int[] difference(int[] a, int[] b) {
+        int[] out = new int[a.length];
+        int count = 0;
+        int j = 0;
+        for (int key : a) {
+            while (j < b.length && b[j] < key) {
+                j++;
+            }
+            if (j == b.length || b[j] != key) {
+                out[count++] = key;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+}
@@ -53,4 +53,31 @@ public class ExponentialSearch {
         return -1;
     }
 
+    //Galloping lower bound: first index in [from, to) with arr[index] >= target, to if there is none.
+    //Probes from, from + 1, from + 3, from + 7, .. so the cost is O(log d) when the answer is d steps away,
+    //which makes a sweep of increasing targets over the array cheap.
+    public static int lowerBound(int[] arr, int from, int to, int target){
+        if(from >= to || arr[from] >= target){
+            return from;
+        }
+        int previous = from; //arr[previous] < target
+        int bound = to - from;
+        int step = 1;
+        while(step < bound && arr[from + step] < target){
+            previous = from + step;
+            step = step < bound / 2 ? step * 2 : bound; //Never doubles past the range, so no int overflow
+        }
+        int left = previous + 1;
+        int right = from + step; //Answer in [left, right]
+        while(left < right){
+            int mid = (left + right) >>> 1;
+            if(arr[mid] < target){
+                left = mid + 1;
+            }else{
+                right = mid;
+            }
+        }
+        return left;
+    }
+
 }
@@ -0,0 +1,167 @@
+package search.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Search a large, static sorted int[] faster than binary search by storing it in a cache friendly order.
+
+//logic:
+//1. Binary search on a sorted array touches arr[n/2], then arr[n/4] or arr[3n/4], ... Every probe of a large array
+//   lands on a different cache line, and the branch on each comparison is a coin flip the CPU mispredicts half the time.
+//2. Eytzinger (BFS) layout stores the implicit binary search tree level by level: the root at index 1, the children of
+//   node k at 2k and 2k + 1. The first levels, which every search visits, share a few cache lines,
+//   and the 16 descendants of a node four levels down sit next to each other (one 64 byte line).
+//3. The search loop has no data dependent branch: k = 2k + (keys[k] < key ? 1 : 0), which the JIT compiles to a
+//   compare and add. The loop always runs about log2(n) times, so the loop branch is predicted too.
+//   Without branches the CPU can't speculate ahead, so each level would wait for the previous load. Java has no
+//   prefetch instruction, so every step also reads keys[16k], the first of the node's 16 descendants four levels down.
+//   That load overlaps with the next comparisons, and when the search gets there the line is already in cache.
+//   The loaded keys are folded into the result as (ahead & n) >>> 31, which is 0 because n >= 0 but is not something
+//   the JIT can prove, so it can't drop the loads.
+//4. When k falls off the tree, the last node where the search went left is the answer. Going right appends a 1 bit
+//   to k, so strip the trailing 1 bits and one 0 bit: k >> (numberOfTrailingZeros(~k) + 1).
+//5. The node index is converted back to the sorted position with O(1) arithmetic (no extra array):
+//   in a full tree of depth H, node k at depth d and offset j in its level has rank (2j + 1) * 2^(H - d) - 1,
+//   minus the missing last level nodes that would come before it.
+
+//Time Complexity: O(n) to build, O(log n) per search with far fewer cache misses and no mispredictions.
+//Space Complexity: O(n), one int per key (the sorted array can be dropped after building).
+
+public class EytzingerIndex {
+
+    private final int[] keys; //keys[1..n] in BFS order, keys[0] unused
+    private final int n;
+    private final int depth; //Depth of the deepest level, the root is depth 0
+    private final int lastLevel; //Number of nodes on the deepest level
+
+    public static void main(String[] args) {
+
+        int[] arr = {1, 3, 3, 5, 8, 13, 21};
+        EytzingerIndex index = new EytzingerIndex(arr);
+        System.out.println("Sorted: " + Arrays.toString(arr));
+        System.out.println("Eytzinger layout: " + Arrays.toString(Arrays.copyOfRange(index.keys, 1, index.n + 1)));
+        System.out.println("lowerBound(3) = " + index.lowerBound(3) + ", upperBound(3) = " + index.upperBound(3));
+        System.out.println("indexOf(13) = " + index.indexOf(13) + ", indexOf(4) = " + index.indexOf(4));
+
+        int size = 10_000_000;
+        Random random = new Random(42);
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = 4 * i + random.nextInt(4); //Distinct, so both searches must agree
+        }
+        int[] queries = random.ints(1 << 20, 0, 4 * size).toArray();
+        index = new EytzingerIndex(sorted);
+
+        for (int round = 1; round <= 3; round++) {//The first rounds include JIT compilation
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int query : queries) {
+                sum += index.lowerBound(query);
+            }
+            long eytzinger = System.nanoTime() - start;
+            start = System.nanoTime();
+            long expected = 0;
+            for (int query : queries) {
+                int found = Arrays.binarySearch(sorted, query);
+                expected += found >= 0 ? found : -found - 1;
+            }
+            long binary = System.nanoTime() - start;
+            System.out.println("Round " + round + ": " + queries.length + " lookups in " + size + " keys: Eytzinger "
+                    + eytzinger / 1_000_000 + " ms, binary search " + binary / 1_000_000 + " ms, same answers: "
+                    + (sum == expected));
+        }
+    }
+
+    //sorted must be in ascending order; duplicates are allowed
+    public EytzingerIndex(int[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] > sorted[i]) {
+                throw new IllegalArgumentException("Input is not sorted at index " + i);
+            }
+        }
+        this.n = sorted.length;
+        this.keys = new int[n + 1];
+        this.depth = n == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+        this.lastLevel = n - ((1 << depth) - 1);
+        //In-order walk of the implicit tree assigns the sorted keys in order, one level of stack per tree level
+        int[] stack = new int[33];
+        int top = 0;
+        int k = 1;
+        int i = 0;
+        while (top > 0 || k <= n) {
+            if (k <= n) {
+                stack[top++] = k;
+                k = 2 * k;
+            } else {
+                k = stack[--top];
+                keys[k] = sorted[i++];
+                k = 2 * k + 1;
+            }
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    //Key at sorted position i
+    public int get(int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of range for " + n + " keys");
+        }
+        return keys[node(i)];
+    }
+
+    //First sorted position whose key is >= key, size() if there is none
+    public int lowerBound(int key) {
+        int k = descend(key);
+        return k == 0 ? n : rank(k);
+    }
+
+    //First sorted position whose key is > key, size() if there is none
+    public int upperBound(int key) {
+        return key == Integer.MAX_VALUE ? n : lowerBound(key + 1);
+    }
+
+    //Sorted position of key (the first one if it repeats), -1 if absent
+    public int indexOf(int key) {
+        int k = descend(key);
+        return k != 0 && keys[k] == key ? rank(k) : -1;
+    }
+
+    //Node holding the first key >= key, 0 if there is none
+    private int descend(int key) {
+        int[] keys = this.keys;
+        int n = this.n;
+        int k = 1;
+        int ahead = 0;
+        int prefetchLimit = n >>> 4;
+        while (k <= prefetchLimit) {
+            ahead ^= keys[k << 4]; //Touch the line of the 16 nodes four levels down, it loads while we compare
+            k = 2 * k + (keys[k] < key ? 1 : 0);
+        }
+        while (k <= n) {
+            k = 2 * k + (keys[k] < key ? 1 : 0);
+        }
+        return (k >>> (Integer.numberOfTrailingZeros(~k) + 1)) | ((ahead & n) >>> 31); //The last term is always 0
+    }
+
+    //Sorted position of node k
+    private int rank(int k) {
+        int d = 31 - Integer.numberOfLeadingZeros(k);
+        int j = k - (1 << d);
+        int fullRank = ((2 * j + 1) << (depth - d)) - 1; //Rank if the deepest level were full
+        int missingBefore = Math.max(0, (fullRank - 2 * lastLevel + 1) / 2); //Absent deepest nodes have ranks 2L, 2L + 2, ..
+        return fullRank - missingBefore;
+    }
+
+    //Node of sorted position i, the inverse of rank
+    private int node(int i) {
+        int fullRank = i < 2 * lastLevel ? i : 2 * i - 2 * lastLevel + 1;
+        int shift = Integer.numberOfTrailingZeros(fullRank + 1); //fullRank + 1 = (2j + 1) << (depth - d)
+        int d = depth - shift;
+        int j = ((fullRank + 1) >>> shift) >>> 1;
+        return (1 << d) + j;
+    }
+
+}
@@ -30,18 +30,39 @@ public class InfiniteArraySearch {
     public static int infiniteArraySearch(int[] arr, int target) {
 
         int low = 0;
-        int high = 1;
+        int high = Math.min(1, arr.length - 1);
 
-        while(arr[high] < target){
+        while(high < arr.length - 1 && arr[high] < target){
+            low = high;
+            high = (int) Math.min(2L * high, arr.length - 1);
+        }
+        return binarySearch(arr,low,high,target);
+       
+    }
+
+    //Index of target among the keys of file, -1 if absent
+    public static long infiniteArraySearch(MappedSortedFile file, long target) {
+
+        long low = 0;
+        long high = 1;
+
+        while(file.get(high) < target){
             low = high;
             high = 2 * high;
+        }
+        while(low <= high){//Indices past the end read as END, so they act like keys at least as large as any target
+            long mid = low + (high - low)/2;
+            long key = file.get(mid);
 
-            if(high > arr.length){
-                high = arr.length - 1;
+            if(key == target && mid < file.knownLength()){//A real record, even if its key is END
+                return mid;
+            } else if(key < target){
+                low = mid + 1;
+            } else{
+                high = mid - 1;
             }
         }
-        return binarySearch(arr,low,high,target);
-       
+        return -1;
     }
 
     public static int binarySearch(int[] arr,int low, int high, int target) {
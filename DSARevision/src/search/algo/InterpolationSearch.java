@@ -43,7 +43,8 @@ public class InterpolationSearch {
                 }
             }
             //The formula to calculate the position of the middle element is:
-            int pos = low + ((target - arr[low]) * (high - low) / (arr[high] - arr[low]));
+            //Computed in long, the int product overflows for large arrays or key ranges
+            int pos = low + (int) (((long) target - arr[low]) * (high - low) / ((long) arr[high] - arr[low]));
             //If the middle element is equal to the target value, return its index.
             if(arr[pos] == target){
                 return pos;
@@ -0,0 +1,272 @@
+package search.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Interpolation search models the whole array as one straight line from the first to the last key, so it
+//gets slow as soon as the keys are not uniform. Learn a piecewise linear model of key -> position instead,
+//with a guaranteed maximum error, and search only the few positions around the prediction.
+
+//logic:
+//1. Points (key, index of its first occurrence) of the sorted array are covered left to right by line segments.
+//   A segment starts exactly on its first point and keeps a cone of allowed slopes: every later point (x, y)
+//   narrows it to slopes that predict y within +-epsilon. When the cone becomes empty, the point starts a new
+//   segment (greedy shrinking cone, as in FITing-tree / RadixSpline). Every key is then predicted within epsilon.
+//2. A radix table over the top radixBits bits of (key - min) maps a query straight to the few segments whose
+//   first key has the same prefix, so finding the segment is O(1) on average instead of a search over all segments.
+//3. lowerBound: predict, clamp to the segment's range of positions and binary search the 2 * epsilon + 3 positions
+//   around the prediction. A key that falls between two distinct keys of the array can be predicted further away
+//   (for example after a long run of duplicates), so the search gallops on when the window is too small.
+//4. The model stores one int key, one double slope and one int position per segment: a few bytes per thousand keys
+//   on smooth data, where a B-tree needs an internal entry for every page of keys.
+
+//Time Complexity: O(n) to build, O(1) expected + O(log epsilon) per lookup.
+//Space Complexity: O(segments + 2^radixBits), the keys themselves are not copied.
+
+public class LearnedIndex {
+
+    public static final int DEFAULT_EPSILON = 32;
+    public static final int MAX_RADIX_BITS = 18;
+
+    private final int[] keys;
+    private final int n;
+    private final int epsilon;
+
+    private final int segments;
+    private final int[] firstKey; //First key of each segment
+    private final int[] firstPosition; //Index of the first occurrence of firstKey
+    private final double[] slope;
+
+    private final int shift; //Radix table index = (key - min) >>> shift
+    private final int[] radixTable; //radixTable[b] = first segment whose key prefix is >= b
+
+    private final long buildNanos;
+
+    public static void main(String[] args) {
+
+        int[] arr = {1, 3, 3, 5, 8, 13, 21, 34, 55, 89, 144};
+        LearnedIndex small = new LearnedIndex(arr, 1);
+        System.out.println("Array: " + Arrays.toString(arr));
+        System.out.println("lowerBound(13) = " + small.lowerBound(13) + ", lowerBound(4) = " + small.lowerBound(4)
+                + ", indexOf(4) = " + small.indexOf(4));
+        System.out.println(small);
+
+        int size = 10_000_000;
+        Random random = new Random(42);
+        int[] uniform = new int[size];
+        int[] skewed = new int[size];
+        for (int i = 0; i < size; i++) {
+            uniform[i] = 4 * i + random.nextInt(4);
+            skewed[i] = (int) (i + 3L * i * i / size);
+        }
+        int[] logNormal = new int[size];
+        for (int i = 0; i < size; i++) {
+            logNormal[i] = (int) Math.min(Integer.MAX_VALUE, Math.exp(random.nextGaussian() * 2 + 10));
+        }
+        Arrays.sort(logNormal);
+
+        runCase("uniform", uniform, random);
+        runCase("quadratic", skewed, random);
+        runCase("log-normal", logNormal, random);
+    }
+
+    private static void runCase(String name, int[] keys, Random random) {
+        LearnedIndex index = new LearnedIndex(keys);
+        int[] queries = new int[1 << 20];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = keys[random.nextInt(keys.length)];
+        }
+        long learned = 0, interpolation = 0, binary = 0;
+        boolean same = true;
+        for (int round = 0; round < 3; round++) {//Keep the last round, the first ones include JIT compilation
+            long start = System.nanoTime();
+            for (int query : queries) {
+                same &= keys[index.indexOf(query)] == query;
+            }
+            learned = System.nanoTime() - start;
+            start = System.nanoTime();
+            int done = 0; //Interpolation search can take O(n) probes on skewed keys, so stop it after 200 ms
+            while (done < queries.length && System.nanoTime() - start < 200_000_000L) {
+                same &= keys[InterpolationSearch.interpolationSearch(keys, queries[done])] == queries[done];
+                done++;
+            }
+            interpolation = (System.nanoTime() - start) * queries.length / done;
+            start = System.nanoTime();
+            for (int query : queries) {
+                same &= keys[BinarySearch.binarySearch(keys, query)] == query;
+            }
+            binary = System.nanoTime() - start;
+        }
+        System.out.println("\n" + name + ": " + index);
+        System.out.println("  ns per lookup: learned " + learned / queries.length + ", interpolation "
+                + interpolation / queries.length + ", binary " + binary / queries.length + ", all found: " + same);
+    }
+
+    public LearnedIndex(int[] sorted) {
+        this(sorted, DEFAULT_EPSILON);
+    }
+
+    //sorted must be in ascending order and must not change while the index is used; duplicates are allowed
+    public LearnedIndex(int[] sorted, int epsilon) {
+        if (epsilon < 1) {
+            throw new IllegalArgumentException("epsilon must be at least 1, got " + epsilon);
+        }
+        long start = System.nanoTime();
+        this.keys = sorted;
+        this.n = sorted.length;
+        this.epsilon = epsilon;
+
+        int[] segmentKey = new int[16];
+        int[] segmentPosition = new int[16];
+        double[] segmentSlope = new double[16];
+        int count = 0;
+
+        int originKey = 0, originPosition = 0;
+        double low = 0, high = Double.POSITIVE_INFINITY; //Cone of slopes that keeps every point within epsilon
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                continue; //Only the first occurrence of a key is a point
+            }
+            if (i > 0 && sorted[i] < sorted[i - 1]) {
+                throw new IllegalArgumentException("Input is not sorted at index " + i);
+            }
+            if (count > 0) {
+                double dx = (double) sorted[i] - originKey;
+                double lowHere = (i - epsilon - originPosition) / dx;
+                double highHere = (i + epsilon - originPosition) / dx;
+                if (Math.max(low, lowHere) <= Math.min(high, highHere)) {
+                    low = Math.max(low, lowHere);
+                    high = Math.min(high, highHere);
+                    continue;
+                }
+                segmentSlope[count - 1] = slopeOf(low, high);
+            }
+            if (count == segmentKey.length) {
+                segmentKey = Arrays.copyOf(segmentKey, 2 * count);
+                segmentPosition = Arrays.copyOf(segmentPosition, 2 * count);
+                segmentSlope = Arrays.copyOf(segmentSlope, 2 * count);
+            }
+            segmentKey[count] = sorted[i];
+            segmentPosition[count] = i;
+            count++;
+            originKey = sorted[i];
+            originPosition = i;
+            low = 0;
+            high = Double.POSITIVE_INFINITY;
+        }
+        if (count > 0) {
+            segmentSlope[count - 1] = slopeOf(low, high);
+        }
+        this.segments = count;
+        this.firstKey = Arrays.copyOf(segmentKey, count);
+        this.firstPosition = Arrays.copyOf(segmentPosition, count);
+        this.slope = Arrays.copyOf(segmentSlope, count);
+
+        //Radix table sized to the number of segments
+        int radixBits = Math.min(MAX_RADIX_BITS, 32 - Integer.numberOfLeadingZeros(Math.max(1, count)) + 1);
+        long range = n == 0 ? 0 : (long) sorted[n - 1] - sorted[0];
+        int rangeBits = 64 - Long.numberOfLeadingZeros(range);
+        this.shift = Math.max(0, rangeBits - radixBits);
+        int buckets = (int) (range >>> shift) + 2;
+        this.radixTable = new int[buckets];
+        int segment = 0;
+        for (int b = 0; b < buckets; b++) {
+            while (segment < count && prefix(firstKey[segment]) < b) {
+                segment++;
+            }
+            radixTable[b] = segment;
+        }
+        this.buildNanos = System.nanoTime() - start;
+    }
+
+    //Any slope in the cone works, the middle one leaves room for rounding
+    private static double slopeOf(double low, double high) {
+        return high == Double.POSITIVE_INFINITY ? 0 : (low + high) / 2;
+    }
+
+    private int prefix(int key) {
+        return (int) (((long) key - keys[0]) >>> shift);
+    }
+
+    //First index whose key is >= key, the array length if there is none
+    public int lowerBound(int key) {
+        if (n == 0 || key <= keys[0]) {
+            return 0;
+        }
+        if (key > keys[n - 1]) {
+            return n;
+        }
+        int s = segmentOf(key);
+        int segmentStart = firstPosition[s];
+        int segmentEnd = s + 1 < segments ? firstPosition[s + 1] : n; //The answer lies in [segmentStart, segmentEnd]
+
+        long predicted = segmentStart + (long) (slope[s] * ((double) key - firstKey[s]));
+        int low = (int) Math.max(segmentStart, Math.min(segmentEnd, predicted - epsilon - 1));
+        int high = (int) Math.max(low, Math.min(segmentEnd, predicted + epsilon + 2));
+
+        if (low > segmentStart && keys[low - 1] >= key) {//Predicted too far right, cannot happen for keys in the array
+            high = low;
+            low = segmentStart;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low < segmentEnd && keys[low] < key) {//Predicted too far left
+            return ExponentialSearch.lowerBound(keys, low, segmentEnd, key);
+        }
+        return low;
+    }
+
+    //Index of key (the first one if it repeats), -1 if absent
+    public int indexOf(int key) {
+        int position = lowerBound(key);
+        return position < n && keys[position] == key ? position : -1;
+    }
+
+    //Last segment whose first key is <= key, keys[0] < key <= keys[n - 1]
+    private int segmentOf(int key) {
+        int b = prefix(key);
+        int low = Math.max(0, radixTable[b] - 1); //The segment may start in an earlier bucket
+        int high = radixTable[b + 1] - 1; //Segments of this bucket are before radixTable[b + 1]
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (firstKey[mid] <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int epsilon() {
+        return epsilon;
+    }
+
+    public int segments() {
+        return segments;
+    }
+
+    //Bytes of the model (segments and radix table), without the keys
+    public long sizeInBytes() {
+        return (long) segments * (Integer.BYTES + Integer.BYTES + Double.BYTES) + (long) radixTable.length * Integer.BYTES;
+    }
+
+    public long buildNanos() {
+        return buildNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+                "LearnedIndex{keys=%d, epsilon=%d, segments=%d, radixTable=%d, size=%d bytes (%.3f bits/key), build=%.1f ms}",
+                n, epsilon, segments, radixTable.length, sizeInBytes(), n == 0 ? 0.0 : sizeInBytes() * 8.0 / n,
+                buildNanos / 1e6);
+    }
+
+}
@@ -0,0 +1,248 @@
+package search.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+//problem: Scan an unsorted int[] for values equal to a target or inside a range [low, high]: the first index,
+//every index, or how many there are. The fallback when the data is not sorted, so it has to run at memory speed.
+
+//logic:
+//1. Equality is the range [target, target]. x is in [low, high] exactly when x - low <= high - low as unsigned
+//   ints, one compare per element instead of two (the subtraction wraps around for x < low).
+//2. count (also the first pass of findAll) has no branch in its loop: widened to long, span - x is negative exactly
+//   when x is outside the range, so the sign bit is added as the miss count. That is about twice as fast as adding
+//   the result of a compare. indexOf stays a plain loop with one compare, the branch is only taken at the match.
+//3. If the JVM runs with --add-modules jdk.incubator.vector and VectorLinearScan (src-incubator) is on the classpath,
+//   the kernels compare a whole vector (8 or 16 ints) per instruction and use the mask's trueCount / firstTrue.
+//   Otherwise, or with -Dsearch.scan.scalar=true, the scalar kernels below are used.
+//4. Arrays with at least PARALLEL_THRESHOLD elements are split into CHUNK sized tasks on a ForkJoinPool.
+//   count and findAll combine the chunk results in chunk order. indexOf keeps the smallest index found so far in
+//   an AtomicInteger: a chunk that starts after it is skipped, and a running chunk stops within POLL elements as
+//   soon as an earlier chunk has found a match, so one match early in the array stops the whole scan.
+
+//Time Complexity: O(n / p) with p threads, indexOf stops at the first match.
+//Space Complexity: O(1) for indexOf and count, O(matches) for findAll.
+
+public class LinearScan {
+
+    public static final int PARALLEL_THRESHOLD = 1 << 18; //Smaller arrays are scanned on the calling thread
+    public static final int CHUNK = 1 << 16; //Elements per parallel task
+    private static final int POLL = 1 << 12; //indexOf checks for an earlier match every POLL elements
+
+    //Operations the Vector API kernel provides, all on arr[from, to) and the unsigned range test of logic 1
+    interface Kernel {
+        int indexOf(int[] arr, int from, int to, int low, int span);
+
+        int count(int[] arr, int from, int to, int low, int span);
+    }
+
+    static final Kernel VECTOR = loadVectorKernel();
+
+    public static void main(String[] args) {
+
+        System.out.println("Kernel: " + (VECTOR == null ? "scalar" : "Vector API"));
+        int[] arr = {7, 3, 9, 3, 12, 5, 3, 8};
+        System.out.println("Array: " + Arrays.toString(arr));
+        System.out.println("indexOf(3) = " + indexOf(arr, 3) + ", count(3) = " + count(arr, 3) + ", findAll(3) = "
+                + Arrays.toString(findAll(arr, 3)));
+        System.out.println("indexOf in [8, 10] = " + indexOf(arr, 8, 10) + ", count in [4, 9] = " + count(arr, 4, 9)
+                + ", findAll in [4, 9] = " + Arrays.toString(findAll(arr, 4, 9)));
+
+        int n = 50_000_000;
+        int[] data = new Random(42).ints(n, 0, 1_000_000_000).toArray();
+        int late = data[n - 10];
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            int simple = -1;
+            for (int i = 0; i < n; i++) {
+                if (data[i] == late) {
+                    simple = i;
+                    break;
+                }
+            }
+            long loop = System.nanoTime() - start;
+            start = System.nanoTime();
+            int sequential = indexOf(data, 0, n, late, late);
+            long single = System.nanoTime() - start;
+            start = System.nanoTime();
+            int parallel = indexOf(data, late);
+            long parallelTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            int inRange = count(data, 100_000_000, 199_999_999);
+            long counting = System.nanoTime() - start;
+            System.out.println("Round " + round + ": find near the end: loop " + loop / 1_000_000 + " ms, scan "
+                    + single / 1_000_000 + " ms, parallel " + parallelTime / 1_000_000 + " ms (" + simple + " = "
+                    + sequential + " = " + parallel + "); count in range " + counting / 1_000_000 + " ms (" + inRange + ")");
+        }
+    }
+
+    //First index of target, -1 if absent
+    public static int indexOf(int[] arr, int target) {
+        return indexOf(arr, target, target);
+    }
+
+    //First index whose value is in [low, high], -1 if there is none
+    public static int indexOf(int[] arr, int low, int high) {
+        if (arr.length < PARALLEL_THRESHOLD) {
+            return indexOf(arr, 0, arr.length, low, high);
+        }
+        return indexOf(arr, low, high, ForkJoinPool.commonPool());
+    }
+
+    public static int indexOf(int[] arr, int low, int high, ForkJoinPool pool) {
+        int span = span(low, high);
+        AtomicInteger first = new AtomicInteger(Integer.MAX_VALUE);
+        parallelFor(pool, chunks(arr.length), c -> {
+            int from = c * CHUNK;
+            int to = Math.min(arr.length, from + CHUNK);
+            for (int start = from; start < to && start < first.get(); start += POLL) {//Stop once an earlier chunk matched
+                int found = scanFirst(arr, start, Math.min(to, start + POLL), low, span);
+                if (found >= 0) {
+                    first.accumulateAndGet(found, Math::min);
+                    return;
+                }
+            }
+        });
+        return first.get() == Integer.MAX_VALUE ? -1 : first.get();
+    }
+
+    //First index in arr[from, to) whose value is in [low, high], -1 if there is none, on the calling thread
+    public static int indexOf(int[] arr, int from, int to, int low, int high) {
+        checkRange(arr, from, to);
+        return scanFirst(arr, from, to, low, span(low, high));
+    }
+
+    public static int count(int[] arr, int target) {
+        return count(arr, target, target);
+    }
+
+    //Number of values in [low, high]
+    public static int count(int[] arr, int low, int high) {
+        if (arr.length < PARALLEL_THRESHOLD) {
+            return scanCount(arr, 0, arr.length, low, span(low, high));
+        }
+        return count(arr, low, high, ForkJoinPool.commonPool());
+    }
+
+    public static int count(int[] arr, int low, int high, ForkJoinPool pool) {
+        int span = span(low, high);
+        int[] counts = new int[chunks(arr.length)];
+        parallelFor(pool, counts.length,
+                c -> counts[c] = scanCount(arr, c * CHUNK, Math.min(arr.length, (c + 1) * CHUNK), low, span));
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public static int[] findAll(int[] arr, int target) {
+        return findAll(arr, target, target);
+    }
+
+    //Every index whose value is in [low, high], in increasing order
+    public static int[] findAll(int[] arr, int low, int high) {
+        if (arr.length < PARALLEL_THRESHOLD) {
+            int span = span(low, high);
+            int[] out = new int[scanCount(arr, 0, arr.length, low, span)];
+            collect(arr, 0, arr.length, low, span, out, 0);
+            return out;
+        }
+        return findAll(arr, low, high, ForkJoinPool.commonPool());
+    }
+
+    public static int[] findAll(int[] arr, int low, int high, ForkJoinPool pool) {
+        int span = span(low, high);
+        //Count per chunk, prefix sum for the output offsets, then every chunk writes its own part
+        int chunks = chunks(arr.length);
+        int[] offsets = new int[chunks + 1];
+        parallelFor(pool, chunks,
+                c -> offsets[c + 1] = scanCount(arr, c * CHUNK, Math.min(arr.length, (c + 1) * CHUNK), low, span));
+        for (int c = 0; c < chunks; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] out = new int[offsets[chunks]];
+        parallelFor(pool, chunks,
+                c -> collect(arr, c * CHUNK, Math.min(arr.length, (c + 1) * CHUNK), low, span, out, offsets[c]));
+        return out;
+    }
+
+    private static int scanFirst(int[] arr, int from, int to, int low, int span) {
+        if (VECTOR != null) {
+            return VECTOR.indexOf(arr, from, to, low, span);
+        }
+        for (int i = from; i < to; i++) {
+            if (Integer.compareUnsigned(arr[i] - low, span) <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int scanCount(int[] arr, int from, int to, int low, int span) {
+        if (VECTOR != null) {
+            return VECTOR.count(arr, from, to, low, span);
+        }
+        long unsignedSpan = span & 0xffffffffL;
+        int misses = 0;
+        for (int i = from; i < to; i++) {
+            long x = (arr[i] - low) & 0xffffffffL;
+            misses += (int) ((unsignedSpan - x) >>> 63); //Sign bit of span - x: 1 exactly when x > span
+        }
+        return to - from - misses;
+    }
+
+    //Writes the matching indices of arr[from, to) to out from position at
+    private static void collect(int[] arr, int from, int to, int low, int span, int[] out, int at) {
+        for (int i = from; i < to; i++) {
+            if (Integer.compareUnsigned(arr[i] - low, span) <= 0) {
+                out[at++] = i;
+            }
+        }
+    }
+
+    //high - low as an unsigned int
+    private static int span(int low, int high) {
+        if (low > high) {
+            throw new IllegalArgumentException("Empty range [" + low + ", " + high + "]");
+        }
+        return high - low;
+    }
+
+    private static int chunks(int n) {
+        return (n + CHUNK - 1) / CHUNK;
+    }
+
+    private static void checkRange(int[] arr, int from, int to) {
+        if (from < 0 || to > arr.length || from > to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for length " + arr.length);
+        }
+    }
+
+    private static void parallelFor(ForkJoinPool pool, int count, IntConsumer body) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> body.accept(index)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    private static Kernel loadVectorKernel() {
+        if (Boolean.getBoolean("search.scan.scalar")) {
+            return null;
+        }
+        try {
+            return (Kernel) Class.forName("search.algo.VectorLinearScan").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; //Kernel not compiled in, or jdk.incubator.vector not added at runtime
+        }
+    }
+
+}
@@ -14,17 +14,22 @@ public class LinearSearch {
 
         int[] arr = {1, 2, 3, 4, 5};
         int target = 3;
-        linearSearch(arr, target);
+        int result = linearSearch(arr, target);
+        if(result == -1){
+            System.out.println("Element not found");
+        }else{
+            System.out.println("Element " + target + " found at index: " + result);
+        }
 
     }
 
-    public static void linearSearch(int[] arr, int target) {
-        for (int i = 0; i <= arr.length; i++) {
+    public static int linearSearch(int[] arr, int target) {
+        for (int i = 0; i < arr.length; i++) {
             if (arr[i] == target) {
-                System.out.println("Element " + target + " found at index: " + i);
-                return;
+                return i;
             }
         }
+        return -1;
     }
 
 }
@@ -0,0 +1,312 @@
+package search.algo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+//problem: Treat a sorted binary file, or a chain of sorted files (segments of an append-only log), as the
+//"infinite array" of InfiniteArraySearch: look up keys without loading the file and without knowing its length.
+
+//logic:
+//1. The file is a sequence of fixed size records, each starting with its key as a big endian long (the byte order
+//   DataOutputStream and ExternalMergeSort use). Segments are concatenated in the order given, so record i of the
+//   chain is record i - start(s) of segment s.
+//2. get(i) returns the key of record i, or Long.MAX_VALUE for any index past the current end, which is what makes
+//   the array "infinite": InfiniteArraySearch doubles its probe index until the key there is >= the target,
+//   and a probe past the end simply stops the doubling. The length never has to be known up front.
+//3. Segments are opened lazily, only when a probe goes past the records of the segments opened so far, so a search
+//   near the start of a long chain never touches the later files. The size of the last segment is read again
+//   when a probe misses, so records appended since the last lookup become visible.
+//4. Pages of PAGE_BYTES are mapped on demand and kept in a small LRU cache (LinkedHashMap in access order).
+//   A search costs O(log n) probes, but the last ones all land in the same page, so only the first few
+//   doubling and halving probes map new regions.
+//5. An evicted page is unmapped right away through Unsafe.invokeCleaner (jdk.unsupported). Left to the garbage
+//   collector, random lookups over a large file create mappings much faster than the tiny buffer objects get
+//   collected, and the process runs into the kernel's limit on mappings (vm.max_map_count).
+//6. Thread safe: the public methods synchronize on the instance. A lookup changes the LRU order, and an unmapped
+//   page read by another thread would crash the JVM instead of throwing, so get and close never overlap.
+//7. A record whose key is END is still a record: InfiniteArraySearch tells it apart from the END of an index
+//   past the end by comparing the index with knownLength().
+
+//Time Complexity: O(log i) probes for a key at index i, each O(1) once its page is cached.
+//Space Complexity: O(cachePages * PAGE_BYTES) of mapped address space, no heap copy of the records.
+
+public class MappedSortedFile implements Closeable {
+
+    public static final int PAGE_BYTES = 1 << 20;
+    public static final int DEFAULT_CACHE_PAGES = 16;
+    public static final long END = Long.MAX_VALUE; //Key of every index past the end, and allowed as a real key
+
+    private final List<Path> paths;
+    private final int recordBytes;
+    private final int recordsPerPage;
+
+    private final List<FileChannel> channels = new ArrayList<>(); //Segments opened so far
+    private long[] segmentStart = new long[1]; //segmentStart[s] = first record of segment s, one extra entry = end
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //Not available, evicted pages are unmapped by the GC
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final LinkedHashMap<Long, ByteBuffer> pages; //First record of the page -> mapped page
+    private long pageHits;
+    private long pageMisses;
+
+    public static void main(String[] args) throws IOException {
+
+        //Three segments of an append-only log of 16 byte records (timestamp, value)
+        Random random = new Random(42);
+        int perSegment = 2_000_000;
+        List<Path> files = new ArrayList<>();
+        long timestamp = 1_700_000_000_000L;
+        for (int s = 0; s < 3; s++) {
+            long[] keys = new long[perSegment];
+            for (int i = 0; i < perSegment; i++) {
+                timestamp += 1 + random.nextInt(10);
+                keys[i] = timestamp;
+            }
+            Path file = Files.createTempFile("segment" + s, ".bin");
+            write(file, keys, 16);
+            files.add(file);
+        }
+        try (MappedSortedFile log = new MappedSortedFile(files, 16, DEFAULT_CACHE_PAGES)) {
+            long first = log.get(0);
+            long target = log.get(4_321_000);
+            System.out.println("First key " + first + ", key at 4321000 " + target);
+            System.out.println("search(" + target + ") = " + InfiniteArraySearch.infiniteArraySearch(log, target));
+            System.out.println("search(" + (first - 1) + ") = " + InfiniteArraySearch.infiniteArraySearch(log, first - 1));
+            System.out.println("Segments opened: " + log.channels.size() + ", " + log);
+
+            long end = timestamp;
+            long start = System.nanoTime();
+            int found = 0;
+            int lookups = 100_000;
+            for (int i = 0; i < lookups; i++) {
+                long key = first + (long) (random.nextDouble() * (end - first));
+                if (InfiniteArraySearch.infiniteArraySearch(log, key) >= 0) {
+                    found++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(lookups + " random lookups: " + elapsed / lookups + " ns each, " + found + " hits, " + log);
+
+            //Append to the last segment while the file is open, the next search past the end sees the new records
+            Path last = files.get(files.size() - 1);
+            Path appended = Files.createTempFile("append", ".bin");
+            write(appended, new long[] {end + 5, end + 9}, 16);
+            Files.write(last, Files.readAllBytes(appended), StandardOpenOption.APPEND);
+            Files.deleteIfExists(appended);
+            System.out.println("After append: search(" + (end + 9) + ") = " + InfiniteArraySearch.infiniteArraySearch(log, end + 9));
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public MappedSortedFile(Path file) throws IOException {
+        this(List.of(file), Long.BYTES, DEFAULT_CACHE_PAGES);
+    }
+
+    //segments in key order; each record is recordBytes long and starts with its big endian long key
+    public MappedSortedFile(List<Path> segments, int recordBytes, int cachePages) throws IOException {
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one segment");
+        }
+        if (recordBytes < Long.BYTES || recordBytes > PAGE_BYTES) {
+            throw new IllegalArgumentException("recordBytes must be in [" + Long.BYTES + ", " + PAGE_BYTES + "], got "
+                    + recordBytes);
+        }
+        if (cachePages < 1) {
+            throw new IllegalArgumentException("cachePages must be at least 1, got " + cachePages);
+        }
+        this.paths = new ArrayList<>(segments);
+        this.recordBytes = recordBytes;
+        this.recordsPerPage = PAGE_BYTES / recordBytes;
+        this.pages = new LinkedHashMap<>(2 * cachePages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+                if (size() > cachePages) {
+                    unmap(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        openNext(); //Fail early if the first segment is missing
+    }
+
+    //Key of record index, END if index is past the last record
+    public synchronized long get(long index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Negative index " + index);
+        }
+        try {
+            int s = segmentOf(index);
+            if (s < 0) {
+                return END;
+            }
+            long local = index - segmentStart[s];
+            long pageStart = local - local % recordsPerPage;
+            ByteBuffer page = page(s, pageStart);
+            int offset = (int) (local - pageStart) * recordBytes;
+            if (offset + Long.BYTES > page.limit()) {//Cached tail page mapped before more records were appended
+                unmap(pages.remove(segmentStart[s] + pageStart));
+                page = page(s, pageStart);
+            }
+            return page.getLong(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Segment holding index, -1 if it is past the end of every segment
+    private int segmentOf(long index) throws IOException {
+        int opened = channels.size();
+        if (index >= segmentStart[opened]) {
+            refreshLast();
+            while (index >= segmentStart[channels.size()] && channels.size() < paths.size()) {
+                openNext();
+            }
+            if (index >= segmentStart[channels.size()]) {
+                return -1;
+            }
+        }
+        int s = Arrays.binarySearch(segmentStart, 0, channels.size() + 1, index);
+        s = s >= 0 ? s : -s - 2;
+        while (segmentStart[s + 1] <= index) {//Skip empty segments that start at the same record
+            s++;
+        }
+        return s;
+    }
+
+    private void openNext() throws IOException {
+        int s = channels.size();
+        FileChannel channel = FileChannel.open(paths.get(s), StandardOpenOption.READ);
+        channels.add(channel);
+        if (segmentStart.length < s + 2) {
+            segmentStart = Arrays.copyOf(segmentStart, 2 * (s + 2));
+        }
+        segmentStart[s + 1] = segmentStart[s] + channel.size() / recordBytes;
+    }
+
+    //An append-only log grows at its last segment; earlier segments are complete
+    private void refreshLast() throws IOException {
+        int s = channels.size() - 1;
+        segmentStart[s + 1] = segmentStart[s] + channels.get(s).size() / recordBytes;
+    }
+
+    private ByteBuffer page(int s, long pageStart) throws IOException {
+        Long key = segmentStart[s] + pageStart;
+        ByteBuffer page = pages.get(key);
+        if (page != null) {
+            pageHits++;
+            return page;
+        }
+        pageMisses++;
+        FileChannel channel = channels.get(s);
+        long position = pageStart * recordBytes;
+        long records = Math.min(recordsPerPage, channel.size() / recordBytes - pageStart);
+        page = channel.map(FileChannel.MapMode.READ_ONLY, position, records * recordBytes).order(ByteOrder.BIG_ENDIAN);
+        pages.put(key, page);
+        return page;
+    }
+
+    //Releases the mapping now instead of at the next GC; without jdk.unsupported it is left to the GC
+    private static void unmap(ByteBuffer page) {
+        if (UNSAFE == null || INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, page);
+        } catch (ReflectiveOperationException e) {
+            //Keep the mapping, the GC releases it later
+        }
+    }
+
+    //Records known so far, without opening further segments
+    public synchronized long knownLength() {
+        return segmentStart[channels.size()];
+    }
+
+    public synchronized long pageHits() {
+        return pageHits;
+    }
+
+    public synchronized long pageMisses() {
+        return pageMisses;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (ByteBuffer page : pages.values()) {
+            unmap(page);
+        }
+        pages.clear();
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MappedSortedFile{segments=" + paths.size() + ", known records=" + knownLength() + ", cached pages="
+                + pages.size() + ", page hits=" + pageHits + ", page misses=" + pageMisses + "}";
+    }
+
+    //Writes keys as records of recordBytes, key first, the rest zero
+    public static void write(Path file, long[] keys, int recordBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(recordBytes * Math.max(1, PAGE_BYTES / recordBytes))
+                .order(ByteOrder.BIG_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long key : keys) {
+                if (buffer.remaining() < recordBytes) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                buffer.putLong(key);
+                for (int i = Long.BYTES; i < recordBytes; i++) {
+                    buffer.put((byte) 0);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+}
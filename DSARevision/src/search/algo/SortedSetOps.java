@@ -0,0 +1,300 @@
+package search.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Intersect and unite sorted int[] ID lists (posting lists) of very different lengths, without allocating.
+
+//logic:
+//1. Lists are strictly increasing. Every method writes into a caller provided out array and returns the number of
+//   values written, so a filter engine can reuse its buffers across queries.
+//2. Similar lengths: merge. Whichever list is behind is advanced in a tight loop until it catches up with the other
+//   one. Before stepping one value at a time, that loop jumps BLOCK values ahead as long as the value there is still
+//   below the other list's current value, so long runs of non-matching IDs cost one comparison per BLOCK values.
+//3. Very different lengths (ratio >= GALLOP_RATIO): walk the short list and find each value in the long one with
+//   ExponentialSearch.lowerBound, starting from the previous hit. Cost O(m log(n / m)) instead of O(m + n).
+//4. k-way intersection (small vs small): start from the shortest list and intersect the running result with every
+//   other list in place. The result only shrinks, so every step is a short list against a long one, and it stops
+//   as soon as the result is empty.
+//5. Union: merge, or for very different lengths gallop through the long list and copy the runs between two values
+//   of the short list with System.arraycopy. k-way union merges the list heads with a min-heap kept in a
+//   caller provided scratch array.
+//6. If the JVM runs with --add-modules jdk.incubator.vector and VectorSortedSetOps (src-incubator) is on the
+//   classpath, intersectMerge compares a vector of one list against a block of the other per step instead.
+//   Otherwise, or with -Dsearch.setops.scalar=true, the scalar merge below is used.
+
+//Time Complexity: intersection O(min(m + n, m log(n / m))), k-way union O(N log k) for N values in total.
+//Space Complexity: O(1), everything is written to the caller's buffers.
+
+public class SortedSetOps {
+
+    public static final int GALLOP_RATIO = 32; //Gallop once the long list is this many times longer
+    public static final int BLOCK = 8;
+
+    //Operations the Vector API kernel provides, with the same contract as the scalar methods
+    interface Kernel {
+        int intersect(int[] a, int aLength, int[] b, int bLength, int[] out);
+    }
+
+    static final Kernel VECTOR = loadVectorKernel();
+
+    public static void main(String[] args) {
+
+        System.out.println("Kernel: " + (VECTOR == null ? "scalar" : "Vector API"));
+        int[] a = {1, 3, 4, 7, 9, 12, 15, 20};
+        int[] b = {3, 5, 7, 8, 12, 21};
+        int[] c = {2, 3, 7, 12, 13};
+        int[] out = new int[a.length + b.length + c.length];
+        System.out.println("a: " + Arrays.toString(a));
+        System.out.println("b: " + Arrays.toString(b));
+        System.out.println("c: " + Arrays.toString(c));
+        int count = intersect(a, a.length, b, b.length, out);
+        System.out.println("a AND b:       " + Arrays.toString(Arrays.copyOf(out, count)));
+        count = intersect(new int[][] {a, b, c}, out);
+        System.out.println("a AND b AND c: " + Arrays.toString(Arrays.copyOf(out, count)));
+        count = union(a, a.length, b, b.length, out);
+        System.out.println("a OR b:        " + Arrays.toString(Arrays.copyOf(out, count)));
+        count = union(new int[][] {a, b, c}, out, new int[2 * 3]);
+        System.out.println("a OR b OR c:   " + Arrays.toString(Arrays.copyOf(out, count)));
+
+        Random random = new Random(42);
+        int[] large = randomSet(random, 10_000_000, 100_000_000);
+        int[] medium = randomSet(random, 500_000, 100_000_000);
+        int[] small = randomSet(random, 10_000, 100_000_000);
+        int[] buffer = new int[large.length];
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            int merged = intersectMerge(large, large.length, medium, medium.length, buffer);
+            long merge = System.nanoTime() - start;
+            start = System.nanoTime();
+            int simple = intersectSimple(large, medium, buffer);
+            long plain = System.nanoTime() - start;
+            start = System.nanoTime();
+            int galloped = intersectGallop(small, small.length, large, large.length, buffer);
+            long gallop = System.nanoTime() - start;
+            start = System.nanoTime();
+            int mergedSmall = intersectMerge(small, small.length, large, large.length, buffer);
+            long mergeSmall = System.nanoTime() - start;
+            System.out.println("Round " + round + ": 10M AND 500K block merge " + merge / 1_000_000 + " ms, plain merge "
+                    + plain / 1_000_000 + " ms (" + merged + " = " + simple + "); 10K AND 10M gallop " + gallop / 1_000
+                    + " us, merge " + mergeSmall / 1_000 + " us (" + galloped + " = " + mergedSmall + ")");
+        }
+    }
+
+    //Intersection of a[0, aLength) and b[0, bLength). out needs min(aLength, bLength) slots and may be a or b itself.
+    public static int intersect(int[] a, int aLength, int[] b, int bLength, int[] out) {
+        if (aLength > bLength) {
+            return intersect(b, bLength, a, aLength, out);
+        }
+        if ((long) aLength * GALLOP_RATIO <= bLength) {
+            return intersectGallop(a, aLength, b, bLength, out);
+        }
+        return intersectMerge(a, aLength, b, bLength, out);
+    }
+
+    public static int intersectMerge(int[] a, int aLength, int[] b, int bLength, int[] out) {
+        if (VECTOR != null) {
+            return VECTOR.intersect(a, aLength, b, bLength, out);
+        }
+        int i = 0, j = 0, count = 0;
+        if (aLength == 0 || bLength == 0) {
+            return 0;
+        }
+        while (true) {
+            int y = b[j];
+            if (a[i] < y) {
+                while (i + BLOCK < aLength && a[i + BLOCK] < y) {//The next BLOCK values are all below b[j]
+                    i += BLOCK;
+                }
+                do {
+                    if (++i == aLength) {
+                        return count;
+                    }
+                } while (a[i] < y);
+            }
+            int x = a[i];
+            if (b[j] < x) {
+                while (j + BLOCK < bLength && b[j + BLOCK] < x) {
+                    j += BLOCK;
+                }
+                do {
+                    if (++j == bLength) {
+                        return count;
+                    }
+                } while (b[j] < x);
+            }
+            if (a[i] == b[j]) {
+                out[count++] = x;
+                if (++i == aLength || ++j == bLength) {
+                    return count;
+                }
+            }
+        }
+    }
+
+    //Finds every value of the short list in the long one by galloping from the previous position
+    public static int intersectGallop(int[] small, int smallLength, int[] large, int largeLength, int[] out) {
+        int count = 0;
+        int position = 0;
+        for (int i = 0; i < smallLength && position < largeLength; i++) {
+            int value = small[i];
+            position = ExponentialSearch.lowerBound(large, position, largeLength, value);
+            if (position < largeLength && large[position] == value) {
+                out[count++] = value;
+                position++;
+            }
+        }
+        return count;
+    }
+
+    //Intersection of all lists. out needs as many slots as the shortest list.
+    public static int intersect(int[][] lists, int[] out) {
+        if (lists.length == 0) {
+            return 0;
+        }
+        int shortest = 0;
+        for (int i = 1; i < lists.length; i++) {
+            if (lists[i].length < lists[shortest].length) {
+                shortest = i;
+            }
+        }
+        int count = lists[shortest].length;
+        System.arraycopy(lists[shortest], 0, out, 0, count);
+        for (int i = 0; i < lists.length && count > 0; i++) {
+            if (i != shortest) {
+                count = intersect(out, count, lists[i], lists[i].length, out); //In place, out only shrinks
+            }
+        }
+        return count;
+    }
+
+    //Union of a[0, aLength) and b[0, bLength). out needs aLength + bLength slots and must not be a or b.
+    public static int union(int[] a, int aLength, int[] b, int bLength, int[] out) {
+        if (aLength > bLength) {
+            return union(b, bLength, a, aLength, out);
+        }
+        if ((long) aLength * GALLOP_RATIO <= bLength) {
+            return unionGallop(a, aLength, b, bLength, out);
+        }
+        int i = 0, j = 0, count = 0;
+        while (i < aLength && j < bLength) {
+            int x = a[i];
+            int y = b[j];
+            out[count++] = Math.min(x, y);
+            i += x <= y ? 1 : 0;
+            j += y <= x ? 1 : 0;
+        }
+        System.arraycopy(a, i, out, count, aLength - i);
+        count += aLength - i;
+        System.arraycopy(b, j, out, count, bLength - j);
+        return count + bLength - j;
+    }
+
+    //Copies the runs of the long list between two values of the short one in bulk
+    private static int unionGallop(int[] small, int smallLength, int[] large, int largeLength, int[] out) {
+        int count = 0;
+        int position = 0;
+        for (int i = 0; i < smallLength; i++) {
+            int value = small[i];
+            int next = ExponentialSearch.lowerBound(large, position, largeLength, value);
+            System.arraycopy(large, position, out, count, next - position);
+            count += next - position;
+            out[count++] = value;
+            position = next < largeLength && large[next] == value ? next + 1 : next;
+        }
+        System.arraycopy(large, position, out, count, largeLength - position);
+        return count + largeLength - position;
+    }
+
+    //Union of all lists. out needs room for the sum of the lengths, scratch for 2 * lists.length ints.
+    public static int union(int[][] lists, int[] out, int[] scratch) {
+        int k = lists.length;
+        if (scratch.length < 2 * k) {
+            throw new IllegalArgumentException("scratch needs " + 2 * k + " ints, got " + scratch.length);
+        }
+        //scratch[0, size) is a min-heap of list ids ordered by their current value, scratch[k + id] the cursor of list id
+        int size = 0;
+        for (int id = 0; id < k; id++) {
+            scratch[k + id] = 0;
+            if (lists[id].length > 0) {
+                scratch[size++] = id;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(lists, scratch, k, size, i);
+        }
+        int count = 0;
+        while (size > 0) {
+            int id = scratch[0];
+            int value = lists[id][scratch[k + id]];
+            if (count == 0 || out[count - 1] != value) {
+                out[count++] = value;
+            }
+            if (++scratch[k + id] == lists[id].length) {//List exhausted, the last heap entry takes its place
+                scratch[0] = scratch[--size];
+            }
+            if (size > 0) {
+                siftDown(lists, scratch, k, size, 0);
+            }
+        }
+        return count;
+    }
+
+    private static void siftDown(int[][] lists, int[] heap, int k, int size, int i) {
+        int id = heap[i];
+        int value = lists[id][heap[k + id]];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            int childValue = lists[heap[child]][heap[k + heap[child]]];
+            if (child + 1 < size) {
+                int rightValue = lists[heap[child + 1]][heap[k + heap[child + 1]]];
+                if (rightValue < childValue) {
+                    child++;
+                    childValue = rightValue;
+                }
+            }
+            if (childValue >= value) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = id;
+    }
+
+    //Textbook merge with a three-way branch, the baseline of the demo
+    private static int intersectSimple(int[] a, int[] b, int[] out) {
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] randomSet(Random random, int size, int bound) {
+        return random.ints(0, bound).distinct().limit(size).sorted().toArray();
+    }
+
+    private static Kernel loadVectorKernel() {
+        if (Boolean.getBoolean("search.setops.scalar")) {
+            return null;
+        }
+        try {
+            return (Kernel) Class.forName("search.algo.VectorSortedSetOps").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; //Kernel not compiled in, or jdk.incubator.vector not added at runtime
+        }
+    }
+
+}
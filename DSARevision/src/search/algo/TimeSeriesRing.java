@@ -0,0 +1,319 @@
+package search.algo;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+//problem: Keep the last capacity (timestamp, value) samples of a metric in a fixed ring that overwrites the oldest,
+//and answer "value at time t" and "samples between t1 and t2" in O(log n) while one thread keeps appending.
+
+//logic:
+//1. Two parallel primitive columns, long[] timestamps and double[] values, no objects per sample and no allocation
+//   after construction. Append number p (counting from 0) goes to slot p % capacity, and timestamps must not
+//   decrease, so the timestamp column is a sorted array rotated at the slot of the oldest sample: the array of
+//   SearchInSortedAndRotatedArray. Here the rotation point is known, so position p maps to its slot directly and
+//   the ring is searched as if it were unrolled, without copying it.
+//2. Lookups gallop back from the newest sample (probe end - 1, end - 2, end - 4, .. until one is older than t) and
+//   then binary search the window found. Metrics queries are mostly about recent time, which is then O(log distance)
+//   and only touches recent slots.
+//3. Single writer, many readers, seqlock: sequence is 2 * appends, odd while an append is being written.
+//   A reader notes the sequence, reads without locking, and afterwards checks that none of the slots it read has
+//   been overwritten in the meantime (every slot it read is newer than appends started - capacity). Unlike a plain
+//   seqlock, an append to a slot the reader didn't touch does not force a retry, so readers of recent data almost
+//   never retry even while the writer runs flat out, and the writer never waits for readers.
+
+//Time Complexity: append O(1), lookups O(log d) for a sample d positions back from the newest, range O(log d + k).
+//Space Complexity: O(capacity), 16 bytes per sample.
+
+public class TimeSeriesRing {
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[] values;
+
+    private long sequence; //2 * appends, odd while an append is in progress; accessed through SEQUENCE
+    private long lastTimestamp = Long.MIN_VALUE; //Writer only
+    private final LongAdder readRetries = new LongAdder();
+
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(TimeSeriesRing.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+
+        TimeSeriesRing ring = new TimeSeriesRing(8);
+        for (long t = 100; t <= 1200; t += 100) {
+            ring.append(t, t / 100.0);
+        }
+        long[] times = new long[8];
+        double[] values = new double[8];
+        int count = ring.range(450, 1000, times, values);
+        System.out.println("Capacity 8 after 12 appends, oldest " + ring.oldestTimestamp() + ", newest "
+                + ring.newestTimestamp());
+        System.out.println("get(700) = " + ring.get(700, Double.NaN) + ", get(300) = " + ring.get(300, Double.NaN)
+                + " (overwritten), valueAtOrBefore(750) = " + ring.valueAtOrBefore(750, Double.NaN));
+        System.out.println("range [450, 1000): " + Arrays.toString(Arrays.copyOf(times, count)) + " -> "
+                + Arrays.toString(Arrays.copyOf(values, count)));
+
+        //One writer appends as fast as it can to a small ring while readers query its oldest samples,
+        //the slots the writer overwrites next, so reads race with appends and have to retry
+        TimeSeriesRing metrics = new TimeSeriesRing(64);
+        long runNanos = 1_000_000_000L;
+        Thread writer = new Thread(() -> {
+            long end = System.nanoTime() + runNanos;
+            long t = 0;
+            while (System.nanoTime() < end) {
+                for (int i = 0; i < 1000; i++, t++) {
+                    metrics.append(t, t * 0.5);
+                }
+            }
+        });
+        int readers = 2;
+        long[] queries = new long[readers];
+        long[] wrong = new long[readers];
+        Thread[] readerThreads = new Thread[readers];
+        for (int r = 0; r < readers; r++) {
+            int id = r;
+            readerThreads[r] = new Thread(() -> {
+                long[] t = new long[64];
+                double[] v = new double[64];
+                long end = System.nanoTime() + runNanos;
+                while (System.nanoTime() < end) {
+                    long from = metrics.oldestTimestamp();
+                    if (from == Long.MIN_VALUE) {
+                        continue;
+                    }
+                    int n = metrics.range(from, from + 32, t, v);
+                    for (int i = 0; i < n; i++) {//Consistent reads: sorted, in range, value matches its timestamp
+                        if (t[i] < from || t[i] >= from + 32 || (i > 0 && t[i] <= t[i - 1]) || v[i] != t[i] * 0.5) {
+                            wrong[id]++;
+                        }
+                    }
+                    double got = metrics.get(from + 7, -1);
+                    if (got != -1 && got != (from + 7) * 0.5) {
+                        wrong[id]++;
+                    }
+                    queries[id] += 2;
+                }
+            });
+        }
+        writer.start();
+        for (Thread reader : readerThreads) {
+            reader.start();
+        }
+        writer.join();
+        for (Thread reader : readerThreads) {
+            reader.join();
+        }
+        System.out.println("Appended " + metrics.appended() + " samples, readers ran " + Arrays.stream(queries).sum()
+                + " queries with " + metrics.readRetries() + " retries and " + Arrays.stream(wrong).sum()
+                + " inconsistent answers");
+        System.out.println("Reads retried: " + (metrics.readRetries() > 0) + ", all answers consistent: "
+                + (Arrays.stream(wrong).sum() == 0));
+    }
+
+    public TimeSeriesRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    //Adds a sample, overwriting the oldest one when the ring is full. Only one thread may append.
+    public void append(long timestamp, double value) {
+        if (timestamp < lastTimestamp) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " is older than the last one, " + lastTimestamp);
+        }
+        long s = (long) SEQUENCE.getOpaque(this);
+        SEQUENCE.setOpaque(this, s + 1);
+        VarHandle.storeStoreFence(); //Readers that see the new sample data also see the odd sequence
+        int slot = slot(s >>> 1);
+        timestamps[slot] = timestamp;
+        values[slot] = value;
+        SEQUENCE.setRelease(this, s + 2);
+        lastTimestamp = timestamp;
+    }
+
+    //Value of the oldest sample with exactly this timestamp, missing if there is none in the ring
+    public double get(long timestamp, double missing) {
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long start = oldest(s);
+            long end = s >>> 1;
+            long low = gallop(timestamp, start, end);
+            long p = lowerBound(timestamp, low, end);
+            double result = p < end && timestamps[slot(p)] == timestamp ? values[slot(p)] : missing;
+            if (valid(low)) {
+                return result;
+            }
+        }
+    }
+
+    //Value of the newest sample at or before timestamp, missing if every sample in the ring is newer
+    public double valueAtOrBefore(long timestamp, double missing) {
+        if (timestamp == Long.MAX_VALUE) {
+            return latest(missing);
+        }
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long start = oldest(s);
+            long end = s >>> 1;
+            long low = gallop(timestamp + 1, start, end);
+            long p = lowerBound(timestamp + 1, low, end) - 1;
+            double result = p >= start ? values[slot(p)] : missing;
+            if (valid(Math.min(low, Math.max(p, start)))) {
+                return result;
+            }
+        }
+    }
+
+    public double latest(double missing) {
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long end = s >>> 1;
+            double result = end > 0 ? values[slot(end - 1)] : missing;
+            if (end == 0 || valid(end - 1)) {
+                return result;
+            }
+        }
+    }
+
+    //Copies the samples with from <= timestamp < to, oldest first, into the columns; returns how many.
+    //Stops when the columns are full, so call again from the last timestamp + 1 to page through.
+    public int range(long from, long to, long[] outTimestamps, double[] outValues) {
+        int room = Math.min(outTimestamps.length, outValues.length);
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long start = oldest(s);
+            long end = s >>> 1;
+            long low = gallop(from, start, end);
+            long first = lowerBound(from, low, end);
+            long last = from < to ? lowerBound(to, first, end) : first;
+            int count = (int) Math.min(room, last - first);
+            copy(first, count, outTimestamps, outValues);
+            if (valid(low)) {
+                return count;
+            }
+        }
+    }
+
+    //Number of samples with from <= timestamp < to
+    public int count(long from, long to) {
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long start = oldest(s);
+            long end = s >>> 1;
+            long low = gallop(from, start, end);
+            long first = lowerBound(from, low, end);
+            long last = from < to ? lowerBound(to, first, end) : first;
+            if (valid(low)) {
+                return (int) (last - first);
+            }
+        }
+    }
+
+    public long oldestTimestamp() {
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long start = oldest(s);
+            long result = start < s >>> 1 ? timestamps[slot(start)] : Long.MIN_VALUE;
+            if (start == s >>> 1 || valid(start)) {
+                return result;
+            }
+        }
+    }
+
+    //Timestamp of the newest sample, Long.MIN_VALUE if the ring is empty
+    public long newestTimestamp() {
+        while (true) {
+            long s = (long) SEQUENCE.getAcquire(this);
+            long end = s >>> 1;
+            long result = end > 0 ? timestamps[slot(end - 1)] : Long.MIN_VALUE;
+            if (end == 0 || valid(end - 1)) {
+                return result;
+            }
+        }
+    }
+
+    public int size() {
+        return (int) Math.min(capacity, appended());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    //Samples appended since construction, including the overwritten ones
+    public long appended() {
+        return (long) SEQUENCE.getAcquire(this) >>> 1;
+    }
+
+    //How often a reader had to repeat a query because the writer overwrote a slot it was reading
+    public long readRetries() {
+        return readRetries.sum();
+    }
+
+    private int slot(long position) {
+        return (int) (position % capacity);
+    }
+
+    //Oldest position that is not being overwritten at sequence s
+    private long oldest(long s) {
+        return Math.max(0, ((s + 1) >>> 1) - capacity);
+    }
+
+    //True if position low, and with it every later position read, was not overwritten while reading
+    private boolean valid(long low) {
+        VarHandle.loadLoadFence(); //The sample reads above happen before the sequence is read again
+        long s = (long) SEQUENCE.getOpaque(this);
+        if (low >= ((s + 1) >>> 1) - capacity) {
+            return true;
+        }
+        readRetries.increment();
+        Thread.onSpinWait();
+        return false;
+    }
+
+    //Low end of a window [low, end) that contains the first position whose timestamp is >= timestamp.
+    //Reads only positions >= the returned low.
+    private long gallop(long timestamp, long start, long end) {
+        long step = 1;
+        while (end - step > start && timestamps[slot(end - step)] >= timestamp) {
+            step <<= 1;
+        }
+        return Math.max(start, end - step);
+    }
+
+    //First position in [low, high) whose timestamp is >= timestamp, high if there is none
+    private long lowerBound(long timestamp, long low, long high) {
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (timestamps[slot(mid)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //Copies count samples from position first; the range wraps around the end of the columns at most once
+    private void copy(long first, int count, long[] outTimestamps, double[] outValues) {
+        int slot = slot(first);
+        int head = Math.min(count, capacity - slot);
+        System.arraycopy(timestamps, slot, outTimestamps, 0, head);
+        System.arraycopy(values, slot, outValues, 0, head);
+        System.arraycopy(timestamps, 0, outTimestamps, head, count - head);
+        System.arraycopy(values, 0, outValues, head, count - head);
+    }
+
+}
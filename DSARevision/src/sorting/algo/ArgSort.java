@@ -0,0 +1,214 @@
+package sorting.algo;
+
+import java.util.Arrays;
+
+//problem: Sort the rows of columnar data (one primitive array per column) by one or more key columns,
+//without building one object per row. Return the sorted order as an int[] permutation of row indices.
+
+//logic:
+//1. argsort(keys): copy the key column, sort the copy together with the row indices 0..n-1 using
+//   the stable radix co-sort of PrimitiveSort. The moved row indices are the permutation:
+//   perm[i] is the row that ends up at position i.
+//2. thenBy / refine(perm, keys): stable sort of an existing permutation by another key column.
+//   Gather keys[perm[i]] and co-sort it with perm. Because every pass is stable, sorting by the
+//   least important key first and the most important key last gives a multi-key order (LSD over columns).
+//3. Descending keys are sorted as ~key, which reverses the order of ints and longs and keeps ties stable.
+//4. apply(perm, column) reorders a column in place to column[perm[0]], column[perm[1]], ...
+//   by following the cycles of the permutation with swaps; only the swap depends on the column type.
+//   Visited positions are marked by flipping perm[i] to ~perm[i], so no extra array is needed,
+//   and the marks are removed at the end.
+
+//Time Complexity: O(n) per key column (radix passes), O(n) per applied column.
+//Space Complexity: O(n) scratch for the key copy and the radix buffers, O(1) extra for apply.
+
+public class ArgSort {
+
+    public static void main(String[] args) {
+
+        System.out.println("Arg Sort Algorithm");
+
+        //Columns of the students in stream.AdvancedStreamQuestions: name, department, score
+        String[] name = {"Alice", "Bob", "Charlie", "David", "Eve", "Frank"};
+        int[] department = {0, 0, 1, 1, 0, 1}; //0 = CS, 1 = Math
+        int[] score = {85, 90, 75, 80, 95, 80};
+        double[] gpa = {3.4, 3.6, 3.0, 3.2, 3.9, 3.1};
+
+        int[] byScore = argsort(score);
+        System.out.println("Rows by score:    " + Arrays.toString(byScore)); //Ties (David, Frank) keep row order
+
+        //Department ascending, then score descending, then row order
+        int[] order = identity(name.length);
+        refine(order, score, true);
+        refine(order, department, false);
+        System.out.println("Rows by dept, score desc: " + Arrays.toString(order));
+
+        apply(order, name);
+        apply(order, department);
+        apply(order, score);
+        apply(order, gpa);
+        for (int i = 0; i < name.length; i++) {
+            System.out.println(name[i] + " " + (department[i] == 0 ? "CS" : "Math") + " " + score[i] + " " + gpa[i]);
+        }
+    }
+
+    //Stable ascending order of the rows: keys[perm[0]] <= keys[perm[1]] <= ...
+    public static int[] argsort(int[] keys) {
+        int[] perm = identity(keys.length);
+        refine(perm, keys, false);
+        return perm;
+    }
+
+    public static int[] argsort(long[] keys) {
+        int[] perm = identity(keys.length);
+        refine(perm, keys, false);
+        return perm;
+    }
+
+    //Total order of PrimitiveSort.sort(double[]): -0.0 before 0.0, NaN last
+    public static int[] argsort(double[] keys) {
+        int[] perm = identity(keys.length);
+        refine(perm, keys, false);
+        return perm;
+    }
+
+    //Multi-key order: keys[0] is the primary column, later columns only break ties
+    public static int[] argsort(int[][] keys, boolean[] descending) {
+        if (keys.length == 0 || keys.length != descending.length) {
+            throw new IllegalArgumentException("Need at least one key column and one direction per column");
+        }
+        int[] perm = identity(keys[0].length);
+        for (int k = keys.length - 1; k >= 0; k--) {//Least important column first
+            refine(perm, keys[k], descending[k]);
+        }
+        return perm;
+    }
+
+    //Stable sort of perm by keys[perm[i]]. Rows with equal keys keep their order in perm,
+    //so calling refine from the least to the most important column builds a multi-key order.
+    public static void refine(int[] perm, int[] keys, boolean descending) {
+        int n = checkLengths(perm, keys.length);
+        int[] gathered = new int[n];
+        for (int i = 0; i < n; i++) {
+            int key = keys[perm[i]];
+            gathered[i] = descending ? ~key : key;
+        }
+        PrimitiveSort.sort(gathered, perm);
+    }
+
+    public static void refine(int[] perm, long[] keys, boolean descending) {
+        int n = checkLengths(perm, keys.length);
+        long[] gathered = new long[n];
+        for (int i = 0; i < n; i++) {
+            long key = keys[perm[i]];
+            gathered[i] = descending ? ~key : key;
+        }
+        PrimitiveSort.sort(gathered, perm);
+    }
+
+    public static void refine(int[] perm, double[] keys, boolean descending) {
+        int n = checkLengths(perm, keys.length);
+        long[] gathered = new long[n];
+        for (int i = 0; i < n; i++) {
+            long key = PrimitiveSort.toSortableLong(keys[perm[i]]);
+            gathered[i] = descending ? ~key : key;
+        }
+        PrimitiveSort.sort(gathered, perm);
+    }
+
+    //Reorders column in place so that column[i] becomes the old column[perm[i]].
+    //perm must be a permutation of 0..n-1; it is modified during the call and restored before returning.
+    public static void apply(int[] perm, int[] column) {
+        checkLengths(perm, column.length);
+        walkCycles(perm, (i, j) -> {
+            int temp = column[i];
+            column[i] = column[j];
+            column[j] = temp;
+        });
+    }
+
+    public static void apply(int[] perm, long[] column) {
+        checkLengths(perm, column.length);
+        walkCycles(perm, (i, j) -> {
+            long temp = column[i];
+            column[i] = column[j];
+            column[j] = temp;
+        });
+    }
+
+    public static void apply(int[] perm, double[] column) {
+        checkLengths(perm, column.length);
+        walkCycles(perm, (i, j) -> {
+            double temp = column[i];
+            column[i] = column[j];
+            column[j] = temp;
+        });
+    }
+
+    public static <T> void apply(int[] perm, T[] column) {
+        checkLengths(perm, column.length);
+        walkCycles(perm, (i, j) -> {
+            T temp = column[i];
+            column[i] = column[j];
+            column[j] = temp;
+        });
+    }
+
+    //Swaps the column positions of one type
+    private interface Swapper {
+        void swap(int i, int j);
+    }
+
+    //Follows every cycle of perm: swapping i with next = perm[i] puts the old column[next] at i and carries the
+    //value that belongs at the end of the cycle along to next. Marks visited positions and removes the marks at the end.
+    private static void walkCycles(int[] perm, Swapper swapper) {
+        for (int start = 0; start < perm.length; start++) {
+            if (perm[start] < 0 || perm[start] == start) {//Already placed, or a fixed point
+                continue;
+            }
+            int i = start;
+            while (true) {
+                int next = perm[i];
+                perm[i] = ~next;
+                if (next == start) {
+                    break;
+                }
+                swapper.swap(i, next);
+                i = next;
+            }
+        }
+        restore(perm);
+    }
+
+    //inverse[perm[i]] = i, i.e. the sorted position (rank) of every row
+    public static int[] inverse(int[] perm) {
+        int[] inverse = new int[perm.length];
+        for (int i = 0; i < perm.length; i++) {
+            inverse[perm[i]] = i;
+        }
+        return inverse;
+    }
+
+    public static int[] identity(int n) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        return perm;
+    }
+
+    private static void restore(int[] perm) {
+        for (int i = 0; i < perm.length; i++) {
+            if (perm[i] < 0) {
+                perm[i] = ~perm[i];
+            }
+        }
+    }
+
+    private static int checkLengths(int[] perm, int columnLength) {
+        if (perm.length != columnLength) {
+            throw new IllegalArgumentException("Permutation has " + perm.length + " rows, column has " + columnLength);
+        }
+        return perm.length;
+    }
+
+}
@@ -19,6 +19,8 @@ package sorting.algo;
 
 public class BubbleSort {
 
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
     public static void main(String[] args) {
 
         System.out.println("Bubble Sort Algorithm");
@@ -38,28 +40,35 @@ public class BubbleSort {
     }
 
     public static void bubbleSort(int[] arr) {
-        int n = arr.length; // Length of the array
-        boolean swapped; // Flag to check if any swapping happened
-
-        // Loop for each pass
-        for (int i = 0; i < n - 1; i++) {
-            swapped = false; // Reset the swapped flag at the beginning of each pass
-
-            // Inner loop for comparing adjacent elements
-            for (int j = 0; j < n - i - 1; j++) { 
-                if (arr[j] > arr[j + 1]) { // Compare elements
-                    // Swap if they are in the wrong order
-                    int temp = arr[j];
-                    arr[j] = arr[j + 1];
-                    arr[j + 1] = temp;
-                    swapped = true; // Set the flag as swapping occurred
+        int depth = PROBE.enter("BubbleSort");
+        try {
+            int n = arr.length; // Length of the array
+            boolean swapped; // Flag to check if any swapping happened
+
+            // Loop for each pass
+            for (int i = 0; i < n - 1; i++) {
+                swapped = false; // Reset the swapped flag at the beginning of each pass
+
+                // Inner loop for comparing adjacent elements
+                for (int j = 0; j < n - i - 1; j++) { 
+                    PROBE.compare();
+                    if (arr[j] > arr[j + 1]) { // Compare elements
+                        // Swap if they are in the wrong order
+                        PROBE.swap();
+                        int temp = arr[j];
+                        arr[j] = arr[j + 1];
+                        arr[j + 1] = temp;
+                        swapped = true; // Set the flag as swapping occurred
+                    }
                 }
-            }
 
-            // If no two elements were swapped in the last pass, array is sorted
-            if (!swapped) {
-                break;
+                // If no two elements were swapped in the last pass, array is sorted
+                if (!swapped) {
+                    break;
+                }
             }
+        } finally {
+            PROBE.exit(depth);
         }
     }
 
@@ -0,0 +1,193 @@
+package sorting.algo;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+//problem: Record the operation counts reported through SortProbe, per sort call and aggregated per algorithm.
+
+//logic:
+//1. Every thread has its own Stats for the call in progress, so counting needs no synchronization.
+//2. enter() on depth 0 starts a new call, deeper enters only track the maximum recursion depth.
+//3. exit() back to depth 0 stores the finished call as the thread's last call and adds it to the algorithm totals.
+//   exit() sets the depth enter() returned, so exits skipped by an exception can't leave the thread nested.
+//4. Counts reported outside any enter / exit (e.g. QuickSort.partition called by QuickSelect) belong to no sort
+//   call and are dropped, instead of being added to the stats of the thread's previous call.
+
+public class CountingSortProbe implements SortProbe {
+
+    public static class Stats {
+        public String algorithm;
+        public long calls;
+        public long comparisons;
+        public long swaps;
+        public long moves;
+        public long maxDepth;
+        public long tempBytes;
+
+        void add(Stats other) {
+            calls += other.calls;
+            comparisons += other.comparisons;
+            swaps += other.swaps;
+            moves += other.moves;
+            maxDepth = Math.max(maxDepth, other.maxDepth);
+            tempBytes += other.tempBytes;
+        }
+
+        Stats copy() {
+            Stats copy = new Stats();
+            copy.algorithm = algorithm;
+            copy.add(this);
+            return copy;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + "{calls=" + calls + ", comparisons=" + comparisons + ", swaps=" + swaps + ", moves="
+                    + moves + ", maxDepth=" + maxDepth + ", tempBytes=" + tempBytes + "}";
+        }
+    }
+
+    private static class Current {
+        final Stats stats = new Stats();
+        int depth;
+        Stats last;
+    }
+
+    private final ThreadLocal<Current> current = ThreadLocal.withInitial(Current::new);
+    private final Map<String, Stats> totals = new ConcurrentHashMap<>();
+
+    @Override
+    public int enter(String algorithm) {
+        Current c = current.get();
+        int depth = c.depth;
+        if (depth == 0) {
+            Stats stats = c.stats;
+            stats.algorithm = algorithm;
+            stats.calls = 1;
+            stats.comparisons = 0;
+            stats.swaps = 0;
+            stats.moves = 0;
+            stats.maxDepth = 0;
+            stats.tempBytes = 0;
+        }
+        c.depth = depth + 1;
+        if (c.depth > c.stats.maxDepth) {
+            c.stats.maxDepth = c.depth;
+        }
+        return depth;
+    }
+
+    @Override
+    public void exit(int depth) {
+        Current c = current.get();
+        c.depth = depth;
+        if (depth == 0) {
+            c.last = c.stats.copy();
+            Stats total = totals.computeIfAbsent(c.stats.algorithm, name -> {
+                Stats stats = new Stats();
+                stats.algorithm = name;
+                return stats;
+            });
+            synchronized (total) {
+                total.add(c.stats);
+            }
+        }
+    }
+
+    @Override
+    public void compare() {
+        Current c = current.get();
+        if (c.depth > 0) {
+            c.stats.comparisons++;
+        }
+    }
+
+    @Override
+    public void swap() {
+        Current c = current.get();
+        if (c.depth > 0) {
+            c.stats.swaps++;
+        }
+    }
+
+    @Override
+    public void move(int count) {
+        Current c = current.get();
+        if (c.depth > 0) {
+            c.stats.moves += count;
+        }
+    }
+
+    @Override
+    public void allocate(long bytes) {
+        Current c = current.get();
+        if (c.depth > 0) {
+            c.stats.tempBytes += bytes;
+        }
+    }
+
+    //Stats of the last sort call finished on this thread, null if there was none
+    public Stats lastCall() {
+        Stats last = current.get().last;
+        return last == null ? null : last.copy();
+    }
+
+    //Totals per algorithm over all threads
+    public Map<String, Stats> aggregate() {
+        Map<String, Stats> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Stats> entry : totals.entrySet()) {
+            synchronized (entry.getValue()) {
+                snapshot.put(entry.getKey(), entry.getValue().copy());
+            }
+        }
+        return snapshot;
+    }
+
+    public void reset() {
+        totals.clear();
+    }
+
+    //Run with: java -Dsorting.probe=true sorting.algo.CountingSortProbe
+    public static void main(String[] args) {
+
+        System.out.println("Sort Probe");
+        if (!SortProbe.enabled()) {
+            System.out.println("Probe is off, start the JVM with -Dsorting.probe=true");
+            return;
+        }
+        CountingSortProbe probe = (CountingSortProbe) SortProbe.ACTIVE;
+
+        int[] input = new java.util.Random(42).ints(2_000, 0, 1_000).toArray();
+        int[] arr;
+
+        arr = input.clone();
+        BubbleSort.bubbleSort(arr);
+        System.out.println(probe.lastCall());
+
+        arr = input.clone();
+        SelectionSort.selectionSort(arr);
+        System.out.println(probe.lastCall());
+
+        arr = input.clone();
+        InsertionSort.insertionSort(arr);
+        System.out.println(probe.lastCall());
+
+        arr = input.clone();
+        MergeSort.mergeSort(arr, 0, arr.length - 1);
+        System.out.println(probe.lastCall());
+
+        arr = input.clone();
+        QuickSort.quickSort(arr, 0, arr.length - 1);
+        System.out.println(probe.lastCall());
+
+        arr = input.clone();
+        HeapSort.heapSort(arr);
+        System.out.println(probe.lastCall());
+
+        arr = input.clone();
+        QuickSort.quickSort(arr, 0, arr.length - 1); //A second QuickSort call, the totals add both up
+        System.out.println("\nAggregate: " + probe.aggregate().values());
+    }
+
+}
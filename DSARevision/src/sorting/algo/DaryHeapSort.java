@@ -0,0 +1,147 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Implement heap sort on a d-ary heap with Floyd's bottom-up sift, and a partial sort that only orders the k smallest.
+
+//logic:
+//1. In a d-ary heap the children of i are d*i+1 .. d*i+d. With d = 4 or 8 all children of a node sit in one
+//   or two cache lines and the tree is only log_d(n) levels deep, instead of log_2(n) with the binary heap in HeapSort.
+//2. Floyd's bottom-up sift: after the root is swapped with the last element, that element almost always belongs
+//   near the bottom again. So first walk down the path of largest children to a leaf, moving each child up one
+//   level without comparing it against the sifted value, then walk back up from the leaf to where the value fits.
+//3. Heap sort: build a max heap, then repeatedly move the root behind the heap and sift the new root.
+//4. Partial sort: keep a max heap of the k smallest elements seen so far in arr[0, k). Every later element that
+//   is smaller than the root replaces the root. At the end, heap sort only those k elements.
+
+//Time Complexity: O(nlogn) for heapSort, O(nlogk) for partialSort.
+//Space Complexity: O(1), everything happens inside the array.
+
+public class DaryHeapSort {
+
+    public static final int DEFAULT_ARITY = 4;
+
+    public static void main(String[] args) {
+
+        System.out.println("D-ary Heap Sort Algorithm");
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        heapSort(array, DEFAULT_ARITY); // Call the sorting method
+
+        System.out.println("\n\nSorted Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        int[] latencies = {120, 5, 87, 43, 99, 1, 64, 150, 33, 7};
+        partialSort(latencies, 3);
+        System.out.println("\n\nThree smallest after partialSort: " + Arrays.toString(Arrays.copyOf(latencies, 3)));
+
+        int n = 5_000_000;
+        int[] big = new Random(42).ints(n).toArray();
+        int[] copy = big.clone();
+        long start = System.nanoTime();
+        HeapSort.heapSort(copy);
+        long binary = System.nanoTime() - start;
+        start = System.nanoTime();
+        heapSort(big, 8);
+        long eight = System.nanoTime() - start;
+        System.out.println("\n" + n + " random ints, binary heap: " + binary / 1_000_000 + " ms, 8-ary bottom-up heap: "
+                + eight / 1_000_000 + " ms, same result: " + Arrays.equals(big, copy));
+    }
+
+    public static void heapSort(int[] arr) {
+        heapSort(arr, DEFAULT_ARITY);
+    }
+
+    public static void heapSort(int[] arr, int arity) {
+        checkArity(arity);
+        int n = arr.length;
+        buildHeap(arr, n, arity);
+        for (int i = n - 1; i > 0; i--) {//Move the max behind the heap
+            int last = arr[i];
+            arr[i] = arr[0];
+            siftDown(arr, i, 0, last, arity);
+        }
+    }
+
+    //Rearranges arr so that arr[0, k) holds the k smallest elements in ascending order. The rest is left in any order.
+    public static void partialSort(int[] arr, int k) {
+        partialSort(arr, k, DEFAULT_ARITY);
+    }
+
+    public static void partialSort(int[] arr, int k, int arity) {
+        checkArity(arity);
+        int n = arr.length;
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException("k must be between 0 and " + n);
+        }
+        if (k == 0) {
+            return;
+        }
+        buildHeap(arr, k, arity);
+        for (int i = k; i < n; i++) {
+            int value = arr[i];
+            if (value < arr[0]) {//Smaller than the largest of the current k smallest
+                arr[i] = arr[0];
+                siftDown(arr, k, 0, value, arity);
+            }
+        }
+        for (int i = k - 1; i > 0; i--) {
+            int last = arr[i];
+            arr[i] = arr[0];
+            siftDown(arr, i, 0, last, arity);
+        }
+    }
+
+    static void buildHeap(int[] arr, int n, int arity) {
+        if (n < 2) {
+            return;
+        }
+        for (int i = (n - 2) / arity; i >= 0; i--) {//Last parent is the parent of n - 1
+            siftDown(arr, n, i, arr[i], arity);
+        }
+    }
+
+    //Places value at position i of the max heap arr[0, n) using Floyd's bottom-up sift.
+    //The old content of arr[i] is overwritten.
+    static void siftDown(int[] arr, int n, int i, int value, int arity) {
+        int hole = i;
+        int child;
+        //Walk down the path of largest children to a leaf, pulling each one up a level
+        while ((child = arity * hole + 1) < n) {
+            int largest = child;
+            int end = Math.min(child + arity, n);
+            for (int c = child + 1; c < end; c++) {
+                if (arr[c] > arr[largest]) {
+                    largest = c;
+                }
+            }
+            arr[hole] = arr[largest];
+            hole = largest;
+        }
+        //Walk back up until the value fits
+        while (hole > i) {
+            int parent = (hole - 1) / arity;
+            if (arr[parent] >= value) {
+                break;
+            }
+            arr[hole] = arr[parent];
+            hole = parent;
+        }
+        arr[hole] = value;
+    }
+
+    static void checkArity(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2");
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+package sorting.algo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Sort a binary file of ints that is bigger than the heap.
+
+//logic:
+//1. Run generation: map the input file chunk by chunk, copy each chunk into an int[] that fits in the
+//   memory budget, sort it in memory with SortEngine and append it to one temporary run file.
+//2. Merge: give every run a direct read-ahead buffer and refill it from the run file with FileChannel reads.
+//   Keep the current head of each run in a heap of longs, value in the high half and run number in the low half,
+//   inverted so HeapSort's max-heap sift-down (HeapSort.heapify) keeps the smallest value at the root.
+//3. Repeatedly take the smallest head, write it to a direct output buffer, replace it with the next value of
+//   the same run and sift it down. Flush the output buffer to the output file whenever it is full.
+//4. Ints are stored 4 bytes each in big endian order, the same layout DataOutputStream writes.
+
+//Time Complexity: O(nlogn) comparisons, O(n) reads and writes of the data on each of the two phases.
+//Space Complexity: O(memoryBudget) heap memory plus (k + 1) read-ahead buffers for k runs.
+
+public class ExternalMergeSort {
+
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20; //64 MB
+    public static final int DEFAULT_READ_AHEAD = 1 << 16; //64 KB per run
+    private static final int MIN_READ_AHEAD = 1 << 12;
+    private static final long MAX_MAP_BYTES = 1L << 30; //A single mapping must stay below 2 GB
+
+    public static void main(String[] args) throws IOException {
+
+        System.out.println("External Merge Sort Algorithm");
+
+        int n = 2_000_000;
+        Path input = Files.createTempFile("external-sort-input", ".bin");
+        Path output = Files.createTempFile("external-sort-output", ".bin");
+        try {
+            int[] values = new Random(42).ints(n).toArray();
+            writeInts(input, values);
+
+            //A 1 MB budget forces the 8 MB file to be split into many runs
+            long start = System.nanoTime();
+            sort(input, output, 1L << 20, 1 << 13);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(values);
+            System.out.println("Sorted " + n + " ints on disk in " + elapsed / 1_000_000 + " ms, correct: "
+                    + Arrays.equals(values, readInts(output)));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    public static void sort(Path input, Path output) throws IOException {
+        sort(input, output, DEFAULT_MEMORY_BUDGET, DEFAULT_READ_AHEAD);
+    }
+
+    public static void sort(Path input, Path output, long memoryBudget, int readAhead) throws IOException {
+        if (readAhead < Integer.BYTES) {
+            throw new IllegalArgumentException("Read ahead must hold at least one int");
+        }
+        //The in-memory sort needs the run plus a scratch buffer of the same size
+        int runLength = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, memoryBudget / (2L * Integer.BYTES)));
+
+        Path runFile = Files.createTempFile(output.toAbsolutePath().getParent(), "runs", ".tmp");
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel runs = FileChannel.open(runFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            if (size % Integer.BYTES != 0) {
+                throw new IllegalArgumentException("Input size " + size + " is not a multiple of 4 bytes");
+            }
+            long total = size / Integer.BYTES;
+            int runCount = (int) ((total + runLength - 1) / runLength);
+            long[] runStart = new long[runCount + 1]; //Run i is the ints [runStart[i], runStart[i + 1])
+
+            int[] run = new int[(int) Math.min(runLength, total)];
+            long position = 0;
+            for (int r = 0; r < runCount; r++) {
+                int length = (int) Math.min(runLength, total - position);
+                readRun(in, position * Integer.BYTES, run, length);
+                int[] toSort = length == run.length ? run : Arrays.copyOf(run, length); //Only the last run can be short
+                SortEngine.sort(toSort);
+                writeRun(runs, position * Integer.BYTES, toSort, length, readAhead);
+                runStart[r] = position;
+                position += length;
+            }
+            runStart[runCount] = position;
+            run = null; //Let the run array go before the merge buffers are allocated
+
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                //Shrink the per-run read ahead so all buffers stay inside the budget
+                long perRun = Math.max(MIN_READ_AHEAD, memoryBudget / (runCount + 1));
+                int bufferBytes = (int) (Math.min(readAhead, perRun) & ~(Integer.BYTES - 1));
+                merge(runs, runStart, out, bufferBytes);
+            }
+        } finally {
+            Files.deleteIfExists(runFile);
+        }
+    }
+
+    private static void readRun(FileChannel in, long offset, int[] run, int length) throws IOException {
+        int done = 0;
+        while (done < length) {
+            int ints = (int) Math.min(length - done, MAX_MAP_BYTES / Integer.BYTES);
+            MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, offset + (long) done * Integer.BYTES,
+                    (long) ints * Integer.BYTES);
+            mapped.order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(run, done, ints);
+            done += ints;
+        }
+    }
+
+    private static void writeRun(FileChannel runs, long offset, int[] run, int length, int bufferBytes)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes & ~(Integer.BYTES - 1)).order(ByteOrder.BIG_ENDIAN);
+        IntBuffer ints = buffer.asIntBuffer();
+        int done = 0;
+        while (done < length) {
+            int count = Math.min(ints.capacity(), length - done);
+            ints.clear();
+            ints.put(run, done, count);
+            buffer.clear().limit(count * Integer.BYTES);
+            while (buffer.hasRemaining()) {
+                offset += runs.write(buffer, offset);
+            }
+            done += count;
+        }
+    }
+
+    private static void merge(FileChannel runs, long[] runStart, FileChannel out, int bufferBytes) throws IOException {
+        int k = runStart.length - 1;
+        ByteBuffer[] buffers = new ByteBuffer[k];
+        long[] next = new long[k]; //Next int of each run not yet loaded into its buffer
+        long[] heap = new long[k]; //entry(head of run, run)
+        int heapSize = 0;
+
+        for (int r = 0; r < k; r++) {
+            buffers[r] = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.BIG_ENDIAN);
+            buffers[r].limit(0);
+            next[r] = runStart[r];
+            if (refill(runs, buffers[r], next, runStart[r + 1], r)) {
+                heap[heapSize++] = entry(buffers[r].getInt(), r);
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            HeapSort.heapify(heap, 0, heapSize, i);
+        }
+
+        ByteBuffer output = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.BIG_ENDIAN);
+        long outPosition = 0;
+        while (heapSize > 0) {
+            output.putInt((int) (~heap[0] >> 32));
+            if (!output.hasRemaining()) {
+                outPosition = flush(out, output, outPosition);
+            }
+
+            int r = (int) ~heap[0];
+            ByteBuffer buffer = buffers[r];
+            if (buffer.hasRemaining() || refill(runs, buffer, next, runStart[r + 1], r)) {
+                heap[0] = entry(buffer.getInt(), r);
+            } else {//Run exhausted, move the last heap entry to the root
+                heap[0] = heap[--heapSize];
+            }
+            HeapSort.heapify(heap, 0, heapSize, 0);
+        }
+        flush(out, output, outPosition);
+    }
+
+    //Packs key (high half) and run (low half) into one long and inverts it, so HeapSort's max-heap has the
+    //smallest key at the root
+    private static long entry(int key, int run) {
+        return ~(((long) key << 32) | run);
+    }
+
+    //Loads the next block of run r into its buffer, returns false when the run has no more ints
+    private static boolean refill(FileChannel runs, ByteBuffer buffer, long[] next, long end, int r)
+            throws IOException {
+        long remaining = end - next[r];
+        if (remaining == 0) {
+            return false;
+        }
+        int bytes = (int) Math.min(buffer.capacity(), remaining * Integer.BYTES);
+        buffer.clear().limit(bytes);
+        long position = next[r] * Integer.BYTES;
+        while (buffer.hasRemaining()) {
+            int read = runs.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Run file ended early");
+            }
+            position += read;
+        }
+        buffer.flip();
+        next[r] += bytes / Integer.BYTES;
+        return true;
+    }
+
+    private static long flush(FileChannel out, ByteBuffer output, long position) throws IOException {
+        output.flip();
+        while (output.hasRemaining()) {
+            position += out.write(output, position);
+        }
+        output.clear();
+        return position;
+    }
+
+    public static void writeInts(Path path, int[] values) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeRun(channel, 0, values, values.length, DEFAULT_READ_AHEAD);
+        }
+    }
+
+    public static int[] readInts(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int[] values = new int[(int) (channel.size() / Integer.BYTES)];
+            readRun(channel, 0, values, values.length);
+            return values;
+        }
+    }
+
+}
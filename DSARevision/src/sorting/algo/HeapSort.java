@@ -13,6 +13,8 @@ package sorting.algo;
 
 public class HeapSort {
 
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
     public static void main(String[] args) {
 
         System.out.println("Heap Sort Algorithm");
@@ -34,41 +36,117 @@ public class HeapSort {
 
     //Heap Sort
     public static void heapSort(int[] arr){
-        int n = arr.length;
-
-        for(int i = n -1; i >= 0; i--){//Build heap
-            heapify(arr, n, i);
-        }
-
-        for(int i = n -1; i > 0; i--){//Extract elements from heap
-            int temp = arr[0];
-            arr[0] = arr[i];
-            arr[i] = temp;
+        heapSort(arr, 0, arr.length - 1);
+    }
 
-            heapify(arr, i, 0);
+    //Heap Sort on the range [low, high] only, the heap is rooted at arr[low]
+    public static void heapSort(int[] arr, int low, int high){
+        int depth = PROBE.enter("HeapSort");
+        try{
+            int n = high - low + 1;
+
+            for(int i = n / 2 - 1; i >= 0; i--){//Build heap
+                heapify(arr, low, n, i);
+            }
+
+            for(int i = n -1; i > 0; i--){//Extract elements from heap
+                PROBE.swap();
+                int temp = arr[low];
+                arr[low] = arr[low + i];
+                arr[low + i] = temp;
+
+                heapify(arr, low, i, 0);
+            }
+        } finally{
+            PROBE.exit(depth);
         }
     }
 
-    //Heapify
-    private static void heapify(int[] arr, int n, int i){
-        int largest = i;
-        int left = 2 * i + 1;//Left child
-        int right = 2 * i + 2; //Right child
-
-        if(left < n && arr[left] > arr[largest]){//If left child is larger than root
-            largest = left;
+    //Heapify for a heap that starts at arr[offset] instead of arr[0], moving arr[offset + i] down until both
+    //children are smaller
+    private static void heapify(int[] arr, int offset, int n, int i){
+        while(true){
+            int largest = i;
+            int left = 2 * i + 1;//Left child
+            int right = 2 * i + 2; //Right child
+
+            if(left < n){
+                PROBE.compare();
+            }
+            if(left < n && arr[offset + left] > arr[offset + largest]){//If left child is larger than root
+                largest = left;
+            }
+
+            if(right < n){
+                PROBE.compare();
+            }
+            if(right < n && arr[offset + right] > arr[offset + largest]){//If right child is larger than root
+                largest = right;
+            }
+
+            if(largest == i){
+                return;
+            }
+            PROBE.swap();
+            int temp = arr[offset + i];
+            arr[offset + i] = arr[offset + largest];
+            arr[offset + largest] = temp;
+            i = largest;
         }
+    }
 
-        if(right < n && arr[right] > arr[largest]){//If right child is larger than root
-            largest = right;
+    //Heap Sort on the range [low, high] of a long[], the same steps as the int version
+    public static void heapSort(long[] arr, int low, int high){
+        int depth = PROBE.enter("HeapSort");
+        try{
+            int n = high - low + 1;
+
+            for(int i = n / 2 - 1; i >= 0; i--){//Build heap
+                heapify(arr, low, n, i);
+            }
+
+            for(int i = n -1; i > 0; i--){//Extract elements from heap
+                PROBE.swap();
+                long temp = arr[low];
+                arr[low] = arr[low + i];
+                arr[low + i] = temp;
+
+                heapify(arr, low, i, 0);
+            }
+        } finally{
+            PROBE.exit(depth);
         }
+    }
 
-        if(largest != i){
-            int temp = arr[i];
-            arr[i] = arr[largest];
-            arr[largest] = temp;
-
-            heapify(arr, n, largest);
+    //Also the heap of ExternalMergeSort's k-way merge
+    static void heapify(long[] arr, int offset, int n, int i){
+        while(true){
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = 2 * i + 2;
+
+            if(left < n){
+                PROBE.compare();
+            }
+            if(left < n && arr[offset + left] > arr[offset + largest]){
+                largest = left;
+            }
+
+            if(right < n){
+                PROBE.compare();
+            }
+            if(right < n && arr[offset + right] > arr[offset + largest]){
+                largest = right;
+            }
+
+            if(largest == i){
+                return;
+            }
+            PROBE.swap();
+            long temp = arr[offset + i];
+            arr[offset + i] = arr[offset + largest];
+            arr[offset + largest] = temp;
+            i = largest;
         }
     }
 
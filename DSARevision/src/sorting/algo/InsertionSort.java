@@ -14,6 +14,8 @@ package sorting.algo;
 
 public class InsertionSort {
 
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
     public static void main(String[] args) {
 
         System.out.println("Insertion Sort Algorithm");
@@ -34,19 +36,113 @@ public class InsertionSort {
     }
 
     public static void insertionSort(int[] arr) {
-        int n = arr.length;
+        insertionSort(arr, 0, arr.length - 1);
+    }
 
-        //Iterate through the array from the second element to the last element
-        for(int i = 1; i < n; i++){
-            int current = arr[i];
-            int j = i -1;
+    //Sorts only the range [low, high] (both inclusive), used as the small-range cutoff by the divide and conquer sorts
+    public static void insertionSort(int[] arr, int low, int high) {
+        int depth = PROBE.enter("InsertionSort");
+        try{
+            //Iterate through the range from the second element to the last element
+            for(int i = low + 1; i <= high; i++){
+                int current = arr[i];
+                int j = i - 1;
 
-            //Compare the current element with the previous element
-            while(j >= 0 && arr[j] > current){//If the current element is smaller than the previous element, swap them
-                arr[j+1] = arr[j];//Shift the elements to the right
-                j--;
+                //Compare the current element with the previous element
+                while(j >= low && arr[j] > current){//If the current element is smaller than the previous element, swap them
+                    PROBE.compare();
+                    PROBE.move(1);
+                    arr[j+1] = arr[j];//Shift the elements to the right
+                    j--;
+                }
+                if(j >= low){
+                    PROBE.compare(); //The comparison that stopped the loop
+                }
+                PROBE.move(1);
+                arr[j+1] = current;
+            }
+        } finally{
+            PROBE.exit(depth);
+        }
+    }
+
+    //Range version for longs
+    public static void insertionSort(long[] arr, int low, int high) {
+        int depth = PROBE.enter("InsertionSort");
+        try{
+            for(int i = low + 1; i <= high; i++){
+                long current = arr[i];
+                int j = i - 1;
+
+                while(j >= low && arr[j] > current){
+                    PROBE.compare();
+                    PROBE.move(1);
+                    arr[j+1] = arr[j];
+                    j--;
+                }
+                if(j >= low){
+                    PROBE.compare();
+                }
+                PROBE.move(1);
+                arr[j+1] = current;
+            }
+        } finally{
+            PROBE.exit(depth);
+        }
+    }
+
+    //Range version for doubles, in the total order of Double.compare (-0.0 before 0.0, NaN last)
+    public static void insertionSort(double[] arr, int low, int high) {
+        int depth = PROBE.enter("InsertionSort");
+        try{
+            for(int i = low + 1; i <= high; i++){
+                double current = arr[i];
+                int j = i - 1;
+
+                while(j >= low && Double.compare(arr[j], current) > 0){
+                    PROBE.compare();
+                    PROBE.move(1);
+                    arr[j+1] = arr[j];
+                    j--;
+                }
+                if(j >= low){
+                    PROBE.compare();
+                }
+                PROBE.move(1);
+                arr[j+1] = current;
+            }
+        } finally{
+            PROBE.exit(depth);
+        }
+    }
+
+    //Binary insertion sort on [low, high] where [low, start) is already sorted.
+    //Finds each insert position with binary search (O(logn) comparisons), then shifts with one arraycopy.
+    //Equal elements are inserted after the existing ones, so the sort is stable.
+    public static void binaryInsertionSort(int[] arr, int low, int high, int start) {
+        int depth = PROBE.enter("InsertionSort");
+        try{
+            if(start == low){
+                start++;
+            }
+            for(int i = start; i <= high; i++){
+                int current = arr[i];
+                int left = low, right = i;
+                while(left < right){
+                    PROBE.compare();
+                    int mid = (left + right) >>> 1;
+                    if(current < arr[mid]){
+                        right = mid;
+                    } else{
+                        left = mid + 1;
+                    }
+                }
+                PROBE.move(i - left + 1);
+                System.arraycopy(arr, left, arr, left + 1, i - left);
+                arr[left] = current;
             }
-            arr[j+1] = current;
+        } finally{
+            PROBE.exit(depth);
         }
     }
         
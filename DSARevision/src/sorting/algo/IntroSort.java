@@ -0,0 +1,306 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Implement introspective sort, a quick sort that never goes quadratic.
+
+//logic:
+//1. Pick pivots from a sorted sample of five evenly spaced elements instead of always taking arr[high],
+//   so sorted and reverse sorted inputs partition evenly.
+//2. If the two sample pivots differ, do a dual-pivot partition into < p1, p1..p2 and > p2.
+//   If they are equal the range is duplicate heavy, so do a three-way partition (< p, == p, > p)
+//   and never touch the run of equal keys again.
+//3. Hand ranges of INSERTION_CUTOFF elements or less to InsertionSort.
+//4. Count the recursion depth. Past 2 * log2(n) levels the pivots are clearly bad, so finish that
+//   range with HeapSort, which is O(nlogn) in the worst case.
+//5. long[] has the same code with long keys, falling back to the long[] overloads of HeapSort and InsertionSort.
+
+//Time Complexity: O(nlogn) in the worst case, O(n) when all keys are equal.
+//Space Complexity: O(logn) for the recursion stack.
+
+public class IntroSort {
+
+    public static final int INSERTION_CUTOFF = 24; //Ranges this small are faster with insertion sort
+
+    public static void main(String[] args) {
+
+        System.out.println("Intro Sort Algorithm");
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        introSort(array); // Call the sorting method
+
+        System.out.println("\n\nSorted Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        //Inputs that make the Lomuto QuickSort quadratic
+        int n = 1_000_000;
+        int[] sorted = new int[n];
+        int[] fewUnique = new int[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+            fewUnique[i] = random.nextInt(4);
+        }
+        System.out.println();
+        runCase("sorted", sorted);
+        runCase("few unique", fewUnique);
+    }
+
+    private static void runCase(String name, int[] arr) {
+        int[] expected = arr.clone();
+        Arrays.sort(expected);
+        long start = System.nanoTime();
+        introSort(arr);
+        long elapsed = System.nanoTime() - start;
+        System.out.println("\n" + name + ": " + arr.length + " elements in " + elapsed / 1_000_000 + " ms, correct: "
+                + Arrays.equals(arr, expected));
+    }
+
+    public static void introSort(int[] arr) {
+        if (arr.length < 2) {
+            return;
+        }
+        introSort(arr, 0, arr.length - 1);
+    }
+
+    //Sorts the range [low, high], both inclusive like QuickSort.quickSort
+    public static void introSort(int[] arr, int low, int high) {
+        sort(arr, low, high, depthLimit(high - low + 1));
+    }
+
+    //Partition levels allowed for n elements before the range is handed to HeapSort, 2 * log2(n)
+    static int depthLimit(int n) {
+        return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
+    }
+
+    private static void sort(int[] arr, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit == 0) {//Too many bad pivots, switch to the guaranteed O(nlogn) sort
+                HeapSort.heapSort(arr, low, high);
+                return;
+            }
+            depthLimit--;
+
+            //Five evenly spaced sample positions, sorted in place
+            int seventh = ((high - low + 1) >>> 3) + ((high - low + 1) >>> 6) + 1;
+            int e3 = (low + high) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSample(arr, e1, e2, e3, e4, e5);
+
+            if (arr[e2] != arr[e4]) {
+                //Dual-pivot partition, pivots moved to the ends first
+                swap(arr, e2, low);
+                swap(arr, e4, high);
+                int pivot1 = arr[low];
+                int pivot2 = arr[high];
+
+                int lt = low + 1; //arr[low + 1, lt) < pivot1
+                int gt = high - 1; //arr(gt, high - 1] > pivot2
+                int k = lt;
+                while (k <= gt) {
+                    int value = arr[k];
+                    if (value < pivot1) {
+                        swap(arr, k, lt);
+                        lt++;
+                    } else if (value > pivot2) {
+                        while (arr[gt] > pivot2 && k < gt) {
+                            gt--;
+                        }
+                        swap(arr, k, gt);
+                        gt--;
+                        if (arr[k] < pivot1) {
+                            swap(arr, k, lt);
+                            lt++;
+                        }
+                    }
+                    k++;
+                }
+                lt--;
+                gt++;
+                swap(arr, low, lt);
+                swap(arr, high, gt);
+
+                sort(arr, low, lt - 1, depthLimit);
+                sort(arr, gt + 1, high, depthLimit);
+                low = lt + 1; //Loop on the middle part
+                high = gt - 1;
+            } else {
+                //Three-way partition around the repeated sample value
+                int pivot = arr[e3];
+                int lt = low; //arr[low, lt) < pivot
+                int gt = high; //arr(gt, high] > pivot
+                int i = low;
+                while (i <= gt) {
+                    int value = arr[i];
+                    if (value < pivot) {
+                        swap(arr, lt++, i++);
+                    } else if (value > pivot) {
+                        swap(arr, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+
+                //Recurse into the smaller side and loop on the larger one to bound the stack
+                if (lt - low < high - gt) {
+                    sort(arr, low, lt - 1, depthLimit);
+                    low = gt + 1;
+                } else {
+                    sort(arr, gt + 1, high, depthLimit);
+                    high = lt - 1;
+                }
+            }
+        }
+        InsertionSort.insertionSort(arr, low, high);
+    }
+
+    //Sorts the values at the five sample positions with a fixed 9 compare-exchange network
+    private static void sortSample(int[] arr, int e1, int e2, int e3, int e4, int e5) {
+        compareSwap(arr, e1, e2);
+        compareSwap(arr, e4, e5);
+        compareSwap(arr, e3, e5);
+        compareSwap(arr, e3, e4);
+        compareSwap(arr, e1, e4);
+        compareSwap(arr, e1, e3);
+        compareSwap(arr, e2, e5);
+        compareSwap(arr, e2, e4);
+        compareSwap(arr, e2, e3);
+    }
+
+    private static void compareSwap(int[] arr, int i, int j) {
+        if (arr[i] > arr[j]) {
+            swap(arr, i, j);
+        }
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    //Same scheme for long[], e.g. SortEngine's long arrays below the radix threshold
+    public static void introSort(long[] arr, int low, int high) {
+        sort(arr, low, high, depthLimit(high - low + 1));
+    }
+
+    private static void sort(long[] arr, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit == 0) {//Too many bad pivots, switch to the guaranteed O(nlogn) sort
+                HeapSort.heapSort(arr, low, high);
+                return;
+            }
+            depthLimit--;
+
+            //Five evenly spaced sample positions, sorted in place
+            int seventh = ((high - low + 1) >>> 3) + ((high - low + 1) >>> 6) + 1;
+            int e3 = (low + high) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSample(arr, e1, e2, e3, e4, e5);
+
+            if (arr[e2] != arr[e4]) {
+                //Dual-pivot partition, pivots moved to the ends first
+                swap(arr, e2, low);
+                swap(arr, e4, high);
+                long pivot1 = arr[low];
+                long pivot2 = arr[high];
+
+                int lt = low + 1; //arr[low + 1, lt) < pivot1
+                int gt = high - 1; //arr(gt, high - 1] > pivot2
+                int k = lt;
+                while (k <= gt) {
+                    long value = arr[k];
+                    if (value < pivot1) {
+                        swap(arr, k, lt);
+                        lt++;
+                    } else if (value > pivot2) {
+                        while (arr[gt] > pivot2 && k < gt) {
+                            gt--;
+                        }
+                        swap(arr, k, gt);
+                        gt--;
+                        if (arr[k] < pivot1) {
+                            swap(arr, k, lt);
+                            lt++;
+                        }
+                    }
+                    k++;
+                }
+                lt--;
+                gt++;
+                swap(arr, low, lt);
+                swap(arr, high, gt);
+
+                sort(arr, low, lt - 1, depthLimit);
+                sort(arr, gt + 1, high, depthLimit);
+                low = lt + 1; //Loop on the middle part
+                high = gt - 1;
+            } else {
+                //Three-way partition around the repeated sample value
+                long pivot = arr[e3];
+                int lt = low; //arr[low, lt) < pivot
+                int gt = high; //arr(gt, high] > pivot
+                int i = low;
+                while (i <= gt) {
+                    long value = arr[i];
+                    if (value < pivot) {
+                        swap(arr, lt++, i++);
+                    } else if (value > pivot) {
+                        swap(arr, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+
+                //Recurse into the smaller side and loop on the larger one to bound the stack
+                if (lt - low < high - gt) {
+                    sort(arr, low, lt - 1, depthLimit);
+                    low = gt + 1;
+                } else {
+                    sort(arr, gt + 1, high, depthLimit);
+                    high = lt - 1;
+                }
+            }
+        }
+        InsertionSort.insertionSort(arr, low, high);
+    }
+
+    private static void sortSample(long[] arr, int e1, int e2, int e3, int e4, int e5) {
+        compareSwap(arr, e1, e2);
+        compareSwap(arr, e4, e5);
+        compareSwap(arr, e3, e5);
+        compareSwap(arr, e3, e4);
+        compareSwap(arr, e1, e4);
+        compareSwap(arr, e1, e3);
+        compareSwap(arr, e2, e5);
+        compareSwap(arr, e2, e4);
+        compareSwap(arr, e2, e3);
+    }
+
+    private static void compareSwap(long[] arr, int i, int j) {
+        if (arr[i] > arr[j]) {
+            swap(arr, i, j);
+        }
+    }
+
+    private static void swap(long[] arr, int i, int j) {
+        long temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+}
@@ -12,6 +12,8 @@ package sorting.algo;
 
 public class MergeSort {
 
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
     public static void main(String[] args) {
 
         System.out.println("Merge Sort Algorithm");
@@ -31,11 +33,16 @@ public class MergeSort {
     }
 
     public static void mergeSort(int[] arr, int left, int right){
-        if(left < right){
-            int middle = (left + right) / 2; //Find the middle element of the array
-            mergeSort(arr, left, middle);//Sort the left half of the array
-            mergeSort(arr, middle + 1, right);//Sort the right half of the array
-            merge(arr, left, middle, right);//Merge the sorted halves
+        int depth = PROBE.enter("MergeSort");
+        try{
+            if(left < right){
+                int middle = (left + right) / 2; //Find the middle element of the array
+                mergeSort(arr, left, middle);//Sort the left half of the array
+                mergeSort(arr, middle + 1, right);//Sort the right half of the array
+                merge(arr, left, middle, right);//Merge the sorted halves
+            }
+        } finally{
+            PROBE.exit(depth);
         }
     }
 
@@ -46,10 +53,12 @@ public class MergeSort {
         //temp arrays
         int[] leftArray = new int[n1]; 
         int[] rightArray = new int[n2]; 
+        PROBE.allocate((long) (n1 + n2) * Integer.BYTES);
+        PROBE.move(n1 + n2);
 
         //Copy data to temp arrays
         for(int i = 0; i < n1; i++){
-            leftArray[i] = arr[left + 1];
+            leftArray[i] = arr[left + i];
         }
 
         for(int j = 0; j < n2; j++){
@@ -60,6 +69,8 @@ public class MergeSort {
         int i = 0, j = 0, k = left;
 
         while(i < n1 && j < n2){
+            PROBE.compare();
+            PROBE.move(1);
             if(leftArray[i] <= rightArray[j]){
                 arr[k] = leftArray[i];
                 i++;
@@ -71,6 +82,7 @@ public class MergeSort {
         }
 
         //Copy the remaining elements of leftArray
+        PROBE.move(n1 - i);
         while(i < n1){
             arr[k] = leftArray[i];
             i++;
@@ -78,4 +90,72 @@ public class MergeSort {
         }
     }
 
+    //Same as mergeSort, but every merge reuses the caller's buffer instead of allocating temp arrays.
+    //buffer must be at least as long as arr; only the range [left, right] of it is touched.
+    public static void mergeSort(int[] arr, int[] buffer, int left, int right){
+        int depth = PROBE.enter("MergeSort");
+        try{
+            if(left < right){
+                int middle = (left + right) >>> 1;
+                mergeSort(arr, buffer, left, middle);
+                mergeSort(arr, buffer, middle + 1, right);
+                PROBE.compare();
+                if(arr[middle] <= arr[middle + 1]){//Halves already in order, nothing to merge
+                    return;
+                }
+                merge(arr, buffer, left, middle, right);
+            }
+        } finally{
+            PROBE.exit(depth);
+        }
+    }
+
+    //Same as mergeSort with a buffer, but ranges of at most cutoff elements are sorted by baseCase,
+    //e.g. InsertionSort::insertionSort or SortingNetwork::sort, instead of being split down to single elements.
+    public static void mergeSort(int[] arr, int[] buffer, int left, int right, int cutoff, RangeSorter baseCase){
+        int depth = PROBE.enter("MergeSort");
+        try{
+            if(right - left + 1 <= cutoff){
+                if(left < right){
+                    baseCase.sort(arr, left, right);
+                }
+                return;
+            }
+            int middle = (left + right) >>> 1;
+            mergeSort(arr, buffer, left, middle, cutoff, baseCase);
+            mergeSort(arr, buffer, middle + 1, right, cutoff, baseCase);
+            PROBE.compare();
+            if(arr[middle] <= arr[middle + 1]){
+                return;
+            }
+            merge(arr, buffer, left, middle, right);
+        } finally{
+            PROBE.exit(depth);
+        }
+    }
+
+    public static void merge(int[] arr, int[] buffer, int left, int middle, int right){
+        //Only the left half needs to be saved, the right half is read in place
+        System.arraycopy(arr, left, buffer, left, middle - left + 1);
+        PROBE.move(middle - left + 1);
+
+        int i = left, j = middle + 1, k = left;
+
+        while(i <= middle && j <= right){
+            PROBE.compare();
+            PROBE.move(1);
+            if(buffer[i] <= arr[j]){
+                arr[k++] = buffer[i++];
+            } else{
+                arr[k++] = arr[j++];
+            }
+        }
+
+        //Remaining right elements are already in place
+        PROBE.move(middle - i + 1);
+        while(i <= middle){
+            arr[k++] = buffer[i++];
+        }
+    }
+
 }
@@ -0,0 +1,670 @@
+package sorting.algo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Sort ints and longs that live off-heap (direct or memory mapped buffers) in place, without copying them into an array.
+
+//logic:
+//1. Every method sorts the elements between position() and limit() of an IntBuffer or LongBuffer view,
+//   using absolute get(i) / put(i, v) so position and limit stay unchanged. Direct, heap and mapped buffers
+//   of either byte order all work, since the view takes care of the byte order.
+//   Each algorithm has one kernel per buffer type on its typed get / put, so ints are never widened to long.
+//2. introSort: the scheme of IntroSort, a sorted sample of five for the pivots, dual-pivot or three-way partition,
+//   insertion sort for small ranges and heap sort past IntroSort.depthLimit levels. No scratch space at all.
+//3. radixSort: LSD radix sort on (key - min) with RadixSort.DIGIT_BITS bit digits, all histograms in one pass,
+//   ping-pong between the data and an off-heap scratch buffer of the same length.
+//4. mergeSort: insertion sort runs of RUN elements, then bottom-up merges that ping-pong between the data and the
+//   scratch buffer. Stable, and neighbouring runs that are already in order are copied instead of merged.
+//5. Scratch buffers are allocated with ByteBuffer.allocateDirect, so no step needs heap memory proportional to n.
+
+//Time Complexity: introSort and mergeSort O(nlogn), radixSort O(n * passes).
+//Space Complexity: introSort O(logn) stack, radixSort and mergeSort O(n) off-heap scratch.
+
+public class OffHeapSort {
+
+    public static final int INSERTION_CUTOFF = IntroSort.INSERTION_CUTOFF;
+    public static final int RUN = 32;
+    private static final int RADIX = 1 << RadixSort.DIGIT_BITS;
+    private static final int MASK = RADIX - 1;
+
+    public static void main(String[] args) throws IOException {
+
+        System.out.println("Off-Heap Sort Algorithm");
+
+        int n = 4_000_000;
+        int[] input = new Random(42).ints(n).toArray();
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+
+        IntBuffer data = newIntBuffer(n);
+        IntBuffer scratch = newIntBuffer(n);
+
+        data.put(0, input);
+        long start = System.nanoTime();
+        introSort(data);
+        System.out.println("introSort: " + (System.nanoTime() - start) / 1_000_000 + " ms, correct: " + matches(data, expected));
+
+        data.put(0, input);
+        start = System.nanoTime();
+        radixSort(data, scratch);
+        System.out.println("radixSort: " + (System.nanoTime() - start) / 1_000_000 + " ms, correct: " + matches(data, expected));
+
+        data.put(0, input);
+        start = System.nanoTime();
+        mergeSort(data, scratch);
+        System.out.println("mergeSort: " + (System.nanoTime() - start) / 1_000_000 + " ms, correct: " + matches(data, expected));
+
+        //Sort a file in place through a memory mapping, same layout as ExternalMergeSort
+        Path file = Files.createTempFile("offheap", ".bin");
+        try {
+            ExternalMergeSort.writeInts(file, input);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                radixSort(mapped.asIntBuffer());
+                mapped.force();
+            }
+            System.out.println("Mapped file sorted in place: " + Arrays.equals(ExternalMergeSort.readInts(file), expected));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    //Direct buffer for n ints in native byte order, e.g. as scratch for radixSort and mergeSort
+    public static IntBuffer newIntBuffer(int n) {
+        return ByteBuffer.allocateDirect(bytes(n, Integer.BYTES)).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    public static LongBuffer newLongBuffer(int n) {
+        return ByteBuffer.allocateDirect(bytes(n, Long.BYTES)).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    public static void introSort(IntBuffer buf) {
+        introSort(buf, buf.position(), buf.limit() - 1);
+    }
+
+    public static void introSort(LongBuffer buf) {
+        introSort(buf, buf.position(), buf.limit() - 1);
+    }
+
+    //Allocates a direct scratch buffer of the same length
+    public static void radixSort(IntBuffer buf) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        radixSort(buf, newIntBuffer(buf.remaining()));
+    }
+
+    //scratch needs at least buf.remaining() elements from its position on
+    public static void radixSort(IntBuffer buf, IntBuffer scratch) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        checkScratch(scratch.remaining(), buf.remaining());
+        radixSort(buf, buf.position(), scratch, scratch.position(), buf.remaining());
+    }
+
+    public static void radixSort(LongBuffer buf) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        radixSort(buf, newLongBuffer(buf.remaining()));
+    }
+
+    public static void radixSort(LongBuffer buf, LongBuffer scratch) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        checkScratch(scratch.remaining(), buf.remaining());
+        radixSort(buf, buf.position(), scratch, scratch.position(), buf.remaining());
+    }
+
+    public static void mergeSort(IntBuffer buf) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        mergeSort(buf, newIntBuffer(buf.remaining()));
+    }
+
+    public static void mergeSort(IntBuffer buf, IntBuffer scratch) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        checkScratch(scratch.remaining(), buf.remaining());
+        mergeSort(buf, buf.position(), scratch, scratch.position(), buf.remaining());
+    }
+
+    public static void mergeSort(LongBuffer buf) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        mergeSort(buf, newLongBuffer(buf.remaining()));
+    }
+
+    public static void mergeSort(LongBuffer buf, LongBuffer scratch) {
+        if (buf.remaining() < 2) {
+            return;
+        }
+        checkScratch(scratch.remaining(), buf.remaining());
+        mergeSort(buf, buf.position(), scratch, scratch.position(), buf.remaining());
+    }
+
+    private static void introSort(IntBuffer keys, int low, int high) {
+        if (high - low < 1) {
+            return;
+        }
+        introSort(keys, low, high, IntroSort.depthLimit(high - low + 1));
+    }
+
+    //Same partitioning as IntroSort.sort, on get / put instead of array accesses
+    private static void introSort(IntBuffer keys, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit == 0) {
+                heapSort(keys, low, high);
+                return;
+            }
+            depthLimit--;
+
+            int seventh = ((high - low + 1) >>> 3) + ((high - low + 1) >>> 6) + 1;
+            int e3 = (low + high) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSample(keys, e1, e2, e3, e4, e5);
+
+            if (keys.get(e2) != keys.get(e4)) {
+                swap(keys, e2, low);
+                swap(keys, e4, high);
+                int pivot1 = keys.get(low);
+                int pivot2 = keys.get(high);
+
+                int lt = low + 1; //[low + 1, lt) < pivot1
+                int gt = high - 1; //(gt, high - 1] > pivot2
+                int k = lt;
+                while (k <= gt) {
+                    int value = keys.get(k);
+                    if (value < pivot1) {
+                        swap(keys, k, lt);
+                        lt++;
+                    } else if (value > pivot2) {
+                        while (keys.get(gt) > pivot2 && k < gt) {
+                            gt--;
+                        }
+                        swap(keys, k, gt);
+                        gt--;
+                        if (keys.get(k) < pivot1) {
+                            swap(keys, k, lt);
+                            lt++;
+                        }
+                    }
+                    k++;
+                }
+                lt--;
+                gt++;
+                swap(keys, low, lt);
+                swap(keys, high, gt);
+
+                introSort(keys, low, lt - 1, depthLimit);
+                introSort(keys, gt + 1, high, depthLimit);
+                low = lt + 1;
+                high = gt - 1;
+            } else {
+                int pivot = keys.get(e3);
+                int lt = low; //[low, lt) < pivot
+                int gt = high; //(gt, high] > pivot
+                int i = low;
+                while (i <= gt) {
+                    int value = keys.get(i);
+                    if (value < pivot) {
+                        swap(keys, lt++, i++);
+                    } else if (value > pivot) {
+                        swap(keys, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                if (lt - low < high - gt) {//Recurse into the smaller side, loop on the larger one
+                    introSort(keys, low, lt - 1, depthLimit);
+                    low = gt + 1;
+                } else {
+                    introSort(keys, gt + 1, high, depthLimit);
+                    high = lt - 1;
+                }
+            }
+        }
+        insertionSort(keys, low, high);
+    }
+
+    private static void sortSample(IntBuffer keys, int e1, int e2, int e3, int e4, int e5) {
+        compareSwap(keys, e1, e2);
+        compareSwap(keys, e4, e5);
+        compareSwap(keys, e3, e5);
+        compareSwap(keys, e3, e4);
+        compareSwap(keys, e1, e4);
+        compareSwap(keys, e1, e3);
+        compareSwap(keys, e2, e5);
+        compareSwap(keys, e2, e4);
+        compareSwap(keys, e2, e3);
+    }
+
+    private static void compareSwap(IntBuffer keys, int i, int j) {
+        if (keys.get(i) > keys.get(j)) {
+            swap(keys, i, j);
+        }
+    }
+
+    private static void swap(IntBuffer keys, int i, int j) {
+        int temp = keys.get(i);
+        keys.put(i, keys.get(j));
+        keys.put(j, temp);
+    }
+
+    private static void insertionSort(IntBuffer keys, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            int current = keys.get(i);
+            int j = i - 1;
+            while (j >= low && keys.get(j) > current) {
+                keys.put(j + 1, keys.get(j));
+                j--;
+            }
+            keys.put(j + 1, current);
+        }
+    }
+
+    private static void heapSort(IntBuffer keys, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(keys, low, n, i);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, low, low + end);
+            siftDown(keys, low, end, 0);
+        }
+    }
+
+    private static void siftDown(IntBuffer keys, int offset, int n, int i) {
+        int value = keys.get(offset + i);
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && keys.get(offset + child + 1) > keys.get(offset + child)) {
+                child++;
+            }
+            int childValue = keys.get(offset + child);
+            if (childValue <= value) {
+                break;
+            }
+            keys.put(offset + i, childValue);
+            i = child;
+        }
+        keys.put(offset + i, value);
+    }
+
+    //Sorts keys[from, from + n) with scratch[scratchFrom, scratchFrom + n) as the second buffer
+    private static void radixSort(IntBuffer keys, int from, IntBuffer scratch, int scratchFrom, int n) {
+        int min = keys.get(from), max = min;
+        for (int i = from + 1; i < from + n; i++) {
+            int value = keys.get(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        long range = (long) max - min; //Can overflow an int, the digits below read value - min as unsigned
+        if (range == 0) {
+            return;
+        }
+        int passes = (64 - Long.numberOfLeadingZeros(range) + RadixSort.DIGIT_BITS - 1) / RadixSort.DIGIT_BITS;
+
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < from + n; i++) {
+            int key = keys.get(i) - min;
+            for (int p = 0; p < passes; p++) {
+                counts[p * RADIX + ((key >>> (p * RadixSort.DIGIT_BITS)) & MASK)]++;
+            }
+        }
+
+        IntBuffer src = keys, dst = scratch;
+        int srcBase = from, dstBase = scratchFrom;
+        for (int p = 0; p < passes; p++) {
+            int base = p * RADIX;
+            int shift = p * RadixSort.DIGIT_BITS;
+            if (!RadixSort.prefixSums(counts, base, n)) {
+                continue; //Every key has the same digit here
+            }
+            for (int i = 0; i < n; i++) {
+                int value = src.get(srcBase + i);
+                dst.put(dstBase + counts[base + (((value - min) >>> shift) & MASK)]++, value);
+            }
+            IntBuffer temp = src;
+            src = dst;
+            dst = temp;
+            int tempBase = srcBase;
+            srcBase = dstBase;
+            dstBase = tempBase;
+        }
+        if (src != keys) {
+            keys.put(from, src, srcBase, n);
+        }
+    }
+
+    private static void mergeSort(IntBuffer keys, int from, IntBuffer scratch, int scratchFrom, int n) {
+        for (int low = 0; low < n; low += RUN) {
+            insertionSort(keys, from + low, from + Math.min(low + RUN, n) - 1);
+        }
+
+        IntBuffer src = keys, dst = scratch;
+        int srcBase = from, dstBase = scratchFrom;
+        for (int width = RUN; width < n; width *= 2) {
+            for (int low = 0; low < n; low += 2 * width) {
+                int middle = Math.min(low + width, n);
+                int high = Math.min(low + 2 * width, n);
+                if (middle == high || src.get(srcBase + middle - 1) <= src.get(srcBase + middle)) {
+                    dst.put(dstBase + low, src, srcBase + low, high - low); //Already in order
+                    continue;
+                }
+                int i = low, j = middle, k = low;
+                while (i < middle && j < high) {
+                    int left = src.get(srcBase + i);
+                    int right = src.get(srcBase + j);
+                    if (left <= right) {
+                        dst.put(dstBase + k++, left);
+                        i++;
+                    } else {
+                        dst.put(dstBase + k++, right);
+                        j++;
+                    }
+                }
+                dst.put(dstBase + k, src, srcBase + i, middle - i);
+                k += middle - i;
+                dst.put(dstBase + k, src, srcBase + j, high - j);
+            }
+            IntBuffer temp = src;
+            src = dst;
+            dst = temp;
+            int tempBase = srcBase;
+            srcBase = dstBase;
+            dstBase = tempBase;
+        }
+        if (src != keys) {
+            keys.put(from, src, srcBase, n);
+        }
+    }
+
+    private static void introSort(LongBuffer keys, int low, int high) {
+        if (high - low < 1) {
+            return;
+        }
+        introSort(keys, low, high, IntroSort.depthLimit(high - low + 1));
+    }
+
+    //Same code as the IntBuffer kernels above with long keys
+    private static void introSort(LongBuffer keys, int low, int high, int depthLimit) {
+        while (high - low + 1 > INSERTION_CUTOFF) {
+            if (depthLimit == 0) {
+                heapSort(keys, low, high);
+                return;
+            }
+            depthLimit--;
+
+            int seventh = ((high - low + 1) >>> 3) + ((high - low + 1) >>> 6) + 1;
+            int e3 = (low + high) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSample(keys, e1, e2, e3, e4, e5);
+
+            if (keys.get(e2) != keys.get(e4)) {
+                swap(keys, e2, low);
+                swap(keys, e4, high);
+                long pivot1 = keys.get(low);
+                long pivot2 = keys.get(high);
+
+                int lt = low + 1; //[low + 1, lt) < pivot1
+                int gt = high - 1; //(gt, high - 1] > pivot2
+                int k = lt;
+                while (k <= gt) {
+                    long value = keys.get(k);
+                    if (value < pivot1) {
+                        swap(keys, k, lt);
+                        lt++;
+                    } else if (value > pivot2) {
+                        while (keys.get(gt) > pivot2 && k < gt) {
+                            gt--;
+                        }
+                        swap(keys, k, gt);
+                        gt--;
+                        if (keys.get(k) < pivot1) {
+                            swap(keys, k, lt);
+                            lt++;
+                        }
+                    }
+                    k++;
+                }
+                lt--;
+                gt++;
+                swap(keys, low, lt);
+                swap(keys, high, gt);
+
+                introSort(keys, low, lt - 1, depthLimit);
+                introSort(keys, gt + 1, high, depthLimit);
+                low = lt + 1;
+                high = gt - 1;
+            } else {
+                long pivot = keys.get(e3);
+                int lt = low; //[low, lt) < pivot
+                int gt = high; //(gt, high] > pivot
+                int i = low;
+                while (i <= gt) {
+                    long value = keys.get(i);
+                    if (value < pivot) {
+                        swap(keys, lt++, i++);
+                    } else if (value > pivot) {
+                        swap(keys, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                if (lt - low < high - gt) {//Recurse into the smaller side, loop on the larger one
+                    introSort(keys, low, lt - 1, depthLimit);
+                    low = gt + 1;
+                } else {
+                    introSort(keys, gt + 1, high, depthLimit);
+                    high = lt - 1;
+                }
+            }
+        }
+        insertionSort(keys, low, high);
+    }
+
+    private static void sortSample(LongBuffer keys, int e1, int e2, int e3, int e4, int e5) {
+        compareSwap(keys, e1, e2);
+        compareSwap(keys, e4, e5);
+        compareSwap(keys, e3, e5);
+        compareSwap(keys, e3, e4);
+        compareSwap(keys, e1, e4);
+        compareSwap(keys, e1, e3);
+        compareSwap(keys, e2, e5);
+        compareSwap(keys, e2, e4);
+        compareSwap(keys, e2, e3);
+    }
+
+    private static void compareSwap(LongBuffer keys, int i, int j) {
+        if (keys.get(i) > keys.get(j)) {
+            swap(keys, i, j);
+        }
+    }
+
+    private static void swap(LongBuffer keys, int i, int j) {
+        long temp = keys.get(i);
+        keys.put(i, keys.get(j));
+        keys.put(j, temp);
+    }
+
+    private static void insertionSort(LongBuffer keys, int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            long current = keys.get(i);
+            int j = i - 1;
+            while (j >= low && keys.get(j) > current) {
+                keys.put(j + 1, keys.get(j));
+                j--;
+            }
+            keys.put(j + 1, current);
+        }
+    }
+
+    private static void heapSort(LongBuffer keys, int low, int high) {
+        int n = high - low + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(keys, low, n, i);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, low, low + end);
+            siftDown(keys, low, end, 0);
+        }
+    }
+
+    private static void siftDown(LongBuffer keys, int offset, int n, int i) {
+        long value = keys.get(offset + i);
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && keys.get(offset + child + 1) > keys.get(offset + child)) {
+                child++;
+            }
+            long childValue = keys.get(offset + child);
+            if (childValue <= value) {
+                break;
+            }
+            keys.put(offset + i, childValue);
+            i = child;
+        }
+        keys.put(offset + i, value);
+    }
+
+    //Sorts keys[from, from + n) with scratch[scratchFrom, scratchFrom + n) as the second buffer
+    private static void radixSort(LongBuffer keys, int from, LongBuffer scratch, int scratchFrom, int n) {
+        long min = keys.get(from), max = min;
+        for (int i = from + 1; i < from + n; i++) {
+            long value = keys.get(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        long range = max - min; //Read as unsigned, a long range can need all 64 bits
+        if (range == 0) {
+            return;
+        }
+        int passes = (64 - Long.numberOfLeadingZeros(range) + RadixSort.DIGIT_BITS - 1) / RadixSort.DIGIT_BITS;
+
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < from + n; i++) {
+            long key = keys.get(i) - min;
+            for (int p = 0; p < passes; p++) {
+                counts[p * RADIX + (int) ((key >>> (p * RadixSort.DIGIT_BITS)) & MASK)]++;
+            }
+        }
+
+        LongBuffer src = keys, dst = scratch;
+        int srcBase = from, dstBase = scratchFrom;
+        for (int p = 0; p < passes; p++) {
+            int base = p * RADIX;
+            int shift = p * RadixSort.DIGIT_BITS;
+            if (!RadixSort.prefixSums(counts, base, n)) {
+                continue; //Every key has the same digit here
+            }
+            for (int i = 0; i < n; i++) {
+                long value = src.get(srcBase + i);
+                dst.put(dstBase + counts[base + (int) (((value - min) >>> shift) & MASK)]++, value);
+            }
+            LongBuffer temp = src;
+            src = dst;
+            dst = temp;
+            int tempBase = srcBase;
+            srcBase = dstBase;
+            dstBase = tempBase;
+        }
+        if (src != keys) {
+            keys.put(from, src, srcBase, n);
+        }
+    }
+
+    private static void mergeSort(LongBuffer keys, int from, LongBuffer scratch, int scratchFrom, int n) {
+        for (int low = 0; low < n; low += RUN) {
+            insertionSort(keys, from + low, from + Math.min(low + RUN, n) - 1);
+        }
+
+        LongBuffer src = keys, dst = scratch;
+        int srcBase = from, dstBase = scratchFrom;
+        for (int width = RUN; width < n; width *= 2) {
+            for (int low = 0; low < n; low += 2 * width) {
+                int middle = Math.min(low + width, n);
+                int high = Math.min(low + 2 * width, n);
+                if (middle == high || src.get(srcBase + middle - 1) <= src.get(srcBase + middle)) {
+                    dst.put(dstBase + low, src, srcBase + low, high - low); //Already in order
+                    continue;
+                }
+                int i = low, j = middle, k = low;
+                while (i < middle && j < high) {
+                    long left = src.get(srcBase + i);
+                    long right = src.get(srcBase + j);
+                    if (left <= right) {
+                        dst.put(dstBase + k++, left);
+                        i++;
+                    } else {
+                        dst.put(dstBase + k++, right);
+                        j++;
+                    }
+                }
+                dst.put(dstBase + k, src, srcBase + i, middle - i);
+                k += middle - i;
+                dst.put(dstBase + k, src, srcBase + j, high - j);
+            }
+            LongBuffer temp = src;
+            src = dst;
+            dst = temp;
+            int tempBase = srcBase;
+            srcBase = dstBase;
+            dstBase = tempBase;
+        }
+        if (src != keys) {
+            keys.put(from, src, srcBase, n);
+        }
+    }
+
+    private static boolean matches(IntBuffer buf, int[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (buf.get(i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int bytes(int n, int elementBytes) {
+        if (n < 0 || n > Integer.MAX_VALUE / elementBytes) {
+            throw new IllegalArgumentException(n + " elements do not fit in one direct buffer");
+        }
+        return n * elementBytes;
+    }
+
+    private static void checkScratch(int scratch, int n) {
+        if (scratch < n) {
+            throw new IllegalArgumentException("Scratch buffer has " + scratch + " elements, need " + n);
+        }
+    }
+
+}
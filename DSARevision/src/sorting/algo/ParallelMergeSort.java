@@ -0,0 +1,217 @@
+package sorting.algo;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//problem: Sort very large int arrays with merge sort on all cores, without allocating inside the sort.
+
+//logic:
+//1. Allocate one scratch buffer of size n up front and use it for the whole sort (ping-pong buffer).
+//2. Split the range in half and sort both halves as fork-join tasks. Each level alternates which of the
+//   two arrays (input or buffer) holds the sorted halves, so a merge always reads one array and writes the other.
+//3. Below the sequential threshold, sort the range with MergeSort using the same scratch buffer.
+//4. Merge the two halves in parallel: take the middle element of the longer run, binary search its position
+//   in the shorter run, and the two sides become independent merges that can run as separate tasks.
+
+//Time Complexity: O(nlogn) work, O(log^3 n) span with the parallel merge.
+//Space Complexity: O(n) for the single scratch buffer, allocated once per call or passed in by the caller.
+
+public class ParallelMergeSort {
+
+    public static final int DEFAULT_THRESHOLD = 1 << 13; //Below this many elements a range is sorted sequentially
+
+    public static void main(String[] args) {
+
+        System.out.println("Parallel Merge Sort Algorithm");
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        parallelMergeSort(array); // Call the sorting method
+
+        System.out.println("\n\nSorted Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        //Compare against the sequential merge sort on a larger input
+        int n = 5_000_000;
+        int[] big = new Random(42).ints(n).toArray();
+        int[] copy = big.clone();
+
+        long start = System.nanoTime();
+        MergeSort.mergeSort(copy, new int[n], 0, n - 1);
+        long sequential = System.nanoTime() - start;
+
+        int[] again = big.clone();
+        start = System.nanoTime();
+        parallelMergeSort(big);
+        long parallel = System.nanoTime() - start;
+
+        int[] scratch = new int[n]; //Kept by the caller and reused for every sort of this size
+        start = System.nanoTime();
+        parallelMergeSort(again, scratch, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+        long reused = System.nanoTime() - start;
+
+        System.out.println("\n\nSorted " + n + " elements, sequential: " + sequential / 1_000_000 + " ms, parallel: "
+                + parallel / 1_000_000 + " ms, parallel with a reused buffer: " + reused / 1_000_000
+                + " ms, same result: " + (java.util.Arrays.equals(big, copy) && java.util.Arrays.equals(again, copy)));
+    }
+
+    public static void parallelMergeSort(int[] arr) {
+        parallelMergeSort(arr, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    public static void parallelMergeSort(int[] arr, int threshold, ForkJoinPool pool) {
+        parallelMergeSort(arr, new int[arr.length], threshold, pool); //The only allocation of the whole sort
+    }
+
+    //Sorts with a caller owned scratch buffer of at least arr.length elements, so repeated sorts allocate nothing
+    public static void parallelMergeSort(int[] arr, int[] buffer, int threshold, ForkJoinPool pool) {
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2");
+        }
+        int n = arr.length;
+        if (buffer.length < n) {
+            throw new IllegalArgumentException("Buffer length " + buffer.length + " is smaller than the array length " + n);
+        }
+        if (n < 2) {
+            return;
+        }
+        if (n <= threshold) {
+            MergeSort.mergeSort(arr, buffer, 0, n - 1);
+            return;
+        }
+        pool.invoke(new SortTask(arr, buffer, 0, n, false, threshold));
+    }
+
+    //Sorts a[low, high). When toBuffer is true the sorted result ends up in b instead of a.
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] a;
+        private final int[] b;
+        private final int low;
+        private final int high;
+        private final boolean toBuffer;
+        private final int threshold;
+
+        SortTask(int[] a, int[] b, int low, int high, boolean toBuffer, int threshold) {
+            this.a = a;
+            this.b = b;
+            this.low = low;
+            this.high = high;
+            this.toBuffer = toBuffer;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (high - low <= threshold) {
+                MergeSort.mergeSort(a, b, low, high - 1);
+                if (toBuffer) {
+                    System.arraycopy(a, low, b, low, high - low);
+                }
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            //Children leave their result in the opposite array, so this level merges from there
+            invokeAll(new SortTask(a, b, low, middle, !toBuffer, threshold),
+                    new SortTask(a, b, middle, high, !toBuffer, threshold));
+
+            int[] src = toBuffer ? a : b;
+            int[] dst = toBuffer ? b : a;
+            new MergeTask(src, dst, low, middle, middle, high, low, threshold).compute();
+        }
+    }
+
+    //Merges src[low1, high1) and src[low2, high2) into dst starting at out. Stable: ties go to the first run.
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] src;
+        private final int[] dst;
+        private final int low1;
+        private final int high1;
+        private final int low2;
+        private final int high2;
+        private final int out;
+        private final int threshold;
+
+        MergeTask(int[] src, int[] dst, int low1, int high1, int low2, int high2, int out, int threshold) {
+            this.src = src;
+            this.dst = dst;
+            this.low1 = low1;
+            this.high1 = high1;
+            this.low2 = low2;
+            this.high2 = high2;
+            this.out = out;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = high1 - low1;
+            int n2 = high2 - low2;
+            if (n1 + n2 <= threshold) {
+                sequentialMerge(src, dst, low1, high1, low2, high2, out);
+                return;
+            }
+            int split1, split2;
+            if (n1 >= n2) {
+                split1 = (low1 + high1) >>> 1;
+                split2 = lowerBound(src, low2, high2, src[split1]); //Equal keys of run 2 go after
+            } else {
+                split2 = (low2 + high2) >>> 1;
+                split1 = upperBound(src, low1, high1, src[split2]); //Equal keys of run 1 go before
+            }
+            int mid = out + (split1 - low1) + (split2 - low2);
+            invokeAll(new MergeTask(src, dst, low1, split1, low2, split2, out, threshold),
+                    new MergeTask(src, dst, split1, high1, split2, high2, mid, threshold));
+        }
+    }
+
+    private static void sequentialMerge(int[] src, int[] dst, int i, int high1, int j, int high2, int k) {
+        while (i < high1 && j < high2) {
+            if (src[i] <= src[j]) {
+                dst[k++] = src[i++];
+            } else {
+                dst[k++] = src[j++];
+            }
+        }
+        if (i < high1) {
+            System.arraycopy(src, i, dst, k, high1 - i);
+        } else if (j < high2) {
+            System.arraycopy(src, j, dst, k, high2 - j);
+        }
+    }
+
+    //First index in [low, high) with arr[index] >= key
+    private static int lowerBound(int[] arr, int low, int high, int key) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (arr[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    //First index in [low, high) with arr[index] > key
+    private static int upperBound(int[] arr, int low, int high, int key) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (arr[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,323 @@
+package sorting.algo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+//problem: Sort int and long arrays on many cores with only two passes over memory, unlike merge sort's logn passes.
+
+//logic:
+//1. Oversampling: take OVERSAMPLING * k random elements, sort them, and use every OVERSAMPLING-th one as the
+//   k - 1 splitters. The k buckets then have close to n / k elements each.
+//2. Store the splitters as an implicit binary search tree (Eytzinger order: children of j are 2j and 2j + 1).
+//   An element is classified in log2(k) steps of j = 2j + (x > tree[j] ? 1 : 0), which has no unpredictable
+//   branch, so the CPU never mispredicts while bucketing random data.
+//3. Split the input into one block per thread. Each thread counts how many of its elements go to each bucket.
+//   A prefix sum over (bucket, block) gives every thread its own write position in every bucket.
+//4. Each thread classifies its block again and scatters the elements into the scratch array.
+//5. The buckets are independent now: sort each one in parallel (IntroSort for int, which runs on the
+//   QuickSort/InsertionSort ideas, RadixSort for long) and copy it back to the input.
+//6. Equality buckets (as in IPS4o): if two splitters are equal the input has heavy duplicates, and all keys equal to
+//   a splitter would pile up in one bucket that a single thread has to sort. Then every bucket b gets a twin 2b + 1
+//   for the keys equal to its upper splitter. The twins need no sorting, so few distinct values still spread over
+//   all threads in the scatter passes and leave almost nothing for step 5.
+
+//Time Complexity: O(nlogn / p) with p threads, two scatter passes over memory plus the local sorts.
+//Space Complexity: O(n) for the scratch array, O(p * k) for the bucket counters.
+
+public class ParallelSampleSort {
+
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 16; //Smaller arrays are sorted on the calling thread
+    private static final int OVERSAMPLING = 16;
+    private static final int MIN_BUCKET = 1 << 12; //Don't create buckets smaller than this on average
+
+    public static void main(String[] args) {
+
+        System.out.println("Parallel Sample Sort Algorithm");
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        sort(array); // Call the sorting method
+
+        System.out.println("\n\nSorted Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        //Scaling from 1 thread up to the number of cores
+        int n = 10_000_000;
+        int[] input = new Random(42).ints(n).toArray();
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+        System.out.println("\n");
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < 3; run++) {
+                int[] copy = input.clone();
+                long start = System.nanoTime();
+                sort(copy, pool);
+                best = Math.min(best, System.nanoTime() - start);
+                if (!Arrays.equals(copy, expected)) {
+                    throw new IllegalStateException("Wrong result with " + threads + " threads");
+                }
+            }
+            pool.shutdown();
+            System.out.println(threads + " thread(s): " + best / 1_000_000 + " ms for " + n + " ints");
+        }
+    }
+
+    public static void sort(int[] arr) {
+        sort(arr, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(int[] arr, ForkJoinPool pool) {
+        int n = arr.length;
+        int threads = pool.getParallelism();
+        int buckets = bucketCount(n, threads);
+        if (n < SEQUENTIAL_THRESHOLD || buckets < 2) {
+            IntroSort.introSort(arr);
+            return;
+        }
+
+        //1. Splitters from a sorted oversample, laid out as an implicit tree
+        Random random = new Random(n);
+        int[] sample = new int[OVERSAMPLING * buckets];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = arr[random.nextInt(n)];
+        }
+        IntroSort.introSort(sample);
+        int[] tree = new int[buckets];
+        buildTree(sample, tree, 1, 0, buckets);
+        int levels = Integer.numberOfTrailingZeros(buckets);
+        int[] splitters = splitters(sample, buckets);
+        boolean equal = hasEqual(splitters);
+        int slots = equal ? 2 * buckets : buckets;
+
+        //2. Per block bucket counts
+        int blocks = threads;
+        int blockSize = (n + blocks - 1) / blocks;
+        int[][] counts = new int[blocks][slots];
+        parallelFor(pool, blocks, b -> {
+            int[] count = counts[b];
+            int end = Math.min(n, (b + 1) * blockSize);
+            for (int i = b * blockSize; i < end; i++) {
+                count[slot(tree, splitters, levels, buckets, equal, arr[i])]++;
+            }
+        });
+
+        //3. Bucket boundaries and write positions of every block inside every bucket
+        int[] bucketStart = prefixSums(counts, slots, n);
+
+        //4. Scatter into the scratch array
+        int[] scratch = new int[n];
+        parallelFor(pool, blocks, b -> {
+            int[] position = counts[b];
+            int end = Math.min(n, (b + 1) * blockSize);
+            for (int i = b * blockSize; i < end; i++) {
+                int value = arr[i];
+                scratch[position[slot(tree, splitters, levels, buckets, equal, value)]++] = value;
+            }
+        });
+
+        //5. Sort every bucket and copy it back, equality buckets hold one value and are copied as they are
+        parallelFor(pool, slots, bucket -> {
+            int from = bucketStart[bucket];
+            int to = bucketStart[bucket + 1];
+            if (to - from > 1 && !(equal && (bucket & 1) == 1)) {
+                IntroSort.introSort(scratch, from, to - 1);
+            }
+            System.arraycopy(scratch, from, arr, from, to - from);
+        });
+    }
+
+    public static void sort(long[] arr) {
+        sort(arr, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(long[] arr, ForkJoinPool pool) {
+        int n = arr.length;
+        int threads = pool.getParallelism();
+        int buckets = bucketCount(n, threads);
+        if (n < SEQUENTIAL_THRESHOLD || buckets < 2) {
+            RadixSort.radixSort(arr);
+            return;
+        }
+
+        Random random = new Random(n);
+        long[] sample = new long[OVERSAMPLING * buckets];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = arr[random.nextInt(n)];
+        }
+        RadixSort.radixSort(sample);
+        long[] tree = new long[buckets];
+        buildTree(sample, tree, 1, 0, buckets);
+        int levels = Integer.numberOfTrailingZeros(buckets);
+        long[] splitters = splitters(sample, buckets);
+        boolean equal = hasEqual(splitters);
+        int slots = equal ? 2 * buckets : buckets;
+
+        int blocks = threads;
+        int blockSize = (n + blocks - 1) / blocks;
+        int[][] counts = new int[blocks][slots];
+        parallelFor(pool, blocks, b -> {
+            int[] count = counts[b];
+            int end = Math.min(n, (b + 1) * blockSize);
+            for (int i = b * blockSize; i < end; i++) {
+                count[slot(tree, splitters, levels, buckets, equal, arr[i])]++;
+            }
+        });
+
+        int[] bucketStart = prefixSums(counts, slots, n);
+
+        long[] scratch = new long[n];
+        parallelFor(pool, blocks, b -> {
+            int[] position = counts[b];
+            int end = Math.min(n, (b + 1) * blockSize);
+            for (int i = b * blockSize; i < end; i++) {
+                long value = arr[i];
+                scratch[position[slot(tree, splitters, levels, buckets, equal, value)]++] = value;
+            }
+        });
+
+        //The input range of a bucket is free by now, so it doubles as the radix scratch space
+        parallelFor(pool, slots, bucket -> {
+            int from = bucketStart[bucket];
+            int to = bucketStart[bucket + 1];
+            if (!(equal && (bucket & 1) == 1)) {
+                RadixSort.radixSort(scratch, arr, from, to);
+            }
+            System.arraycopy(scratch, from, arr, from, to - from);
+        });
+    }
+
+    //Power of two, about 8 buckets per thread for load balance, but buckets of at least MIN_BUCKET elements
+    private static int bucketCount(int n, int threads) {
+        int wanted = Integer.highestOneBit(Math.max(1, threads * 8 - 1)) << 1;
+        int limit = Integer.highestOneBit(Math.max(1, n / MIN_BUCKET));
+        return Math.max(1, Math.min(Math.min(wanted, limit), 1 << 10));
+    }
+
+    //Fills tree[node] with the splitter between buckets [low, high) split at the middle, recursively
+    private static void buildTree(int[] sample, int[] tree, int node, int low, int high) {
+        if (high - low < 2) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        tree[node] = sample[middle * OVERSAMPLING - 1]; //Largest sample value that still belongs in bucket middle - 1
+        buildTree(sample, tree, 2 * node, low, middle);
+        buildTree(sample, tree, 2 * node + 1, middle, high);
+    }
+
+    private static void buildTree(long[] sample, long[] tree, int node, int low, int high) {
+        if (high - low < 2) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        tree[node] = sample[middle * OVERSAMPLING - 1];
+        buildTree(sample, tree, 2 * node, low, middle);
+        buildTree(sample, tree, 2 * node + 1, middle, high);
+    }
+
+    //Turns the per block counts of every slot into write positions, slot by slot, and returns the slot boundaries
+    private static int[] prefixSums(int[][] counts, int slots, int n) {
+        int[] bucketStart = new int[slots + 1];
+        int sum = 0;
+        for (int bucket = 0; bucket < slots; bucket++) {
+            bucketStart[bucket] = sum;
+            for (int[] count : counts) {
+                int blockCount = count[bucket];
+                count[bucket] = sum;
+                sum += blockCount;
+            }
+        }
+        bucketStart[slots] = n;
+        return bucketStart;
+    }
+
+    //splitters[b] is the upper splitter of bucket b. The last bucket has none, it repeats the one below it,
+    //which no key of the last bucket can equal.
+    private static int[] splitters(int[] sample, int buckets) {
+        int[] splitters = new int[buckets];
+        for (int b = 0; b < buckets - 1; b++) {
+            splitters[b] = sample[(b + 1) * OVERSAMPLING - 1];
+        }
+        splitters[buckets - 1] = splitters[buckets - 2];
+        return splitters;
+    }
+
+    private static long[] splitters(long[] sample, int buckets) {
+        long[] splitters = new long[buckets];
+        for (int b = 0; b < buckets - 1; b++) {
+            splitters[b] = sample[(b + 1) * OVERSAMPLING - 1];
+        }
+        splitters[buckets - 1] = splitters[buckets - 2];
+        return splitters;
+    }
+
+    private static boolean hasEqual(int[] splitters) {
+        for (int b = 1; b < splitters.length - 1; b++) {
+            if (splitters[b] == splitters[b - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasEqual(long[] splitters) {
+        for (int b = 1; b < splitters.length - 1; b++) {
+            if (splitters[b] == splitters[b - 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Bucket of value, or with equality buckets 2 * bucket, plus 1 if value equals the bucket's upper splitter
+    private static int slot(int[] tree, int[] splitters, int levels, int buckets, boolean equal, int value) {
+        int bucket = classify(tree, levels, buckets, value);
+        return equal ? 2 * bucket + (value == splitters[bucket] ? 1 : 0) : bucket;
+    }
+
+    private static int slot(long[] tree, long[] splitters, int levels, int buckets, boolean equal, long value) {
+        int bucket = classify(tree, levels, buckets, value);
+        return equal ? 2 * bucket + (value == splitters[bucket] ? 1 : 0) : bucket;
+    }
+
+    //Descends the splitter tree without data dependent branches, values equal to a splitter go left
+    private static int classify(int[] tree, int levels, int buckets, int value) {
+        int j = 1;
+        for (int level = 0; level < levels; level++) {
+            j = 2 * j + (value > tree[j] ? 1 : 0);
+        }
+        return j - buckets;
+    }
+
+    private static int classify(long[] tree, int levels, int buckets, long value) {
+        int j = 1;
+        for (int level = 0; level < levels; level++) {
+            j = 2 * j + (value > tree[j] ? 1 : 0);
+        }
+        return j - buckets;
+    }
+
+    //Runs body(0) .. body(count - 1) as separate tasks in pool and waits for all of them
+    private static void parallelFor(ForkJoinPool pool, int count, IntConsumer body) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> body.accept(index)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+}
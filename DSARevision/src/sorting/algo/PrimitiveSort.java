@@ -0,0 +1,146 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+//problem: Sort long[], double[], short[] and char[] without boxing, and sort a key array together with a payload array.
+
+//logic:
+//1. long[]: SortEngine (insertion sort for tiny arrays, radix sort otherwise).
+//2. double[]: map every double to a long whose signed order is the order of Double.compare
+//   (flip the 63 value bits of negative numbers), radix sort the longs, map them back.
+//   This gives a total order: -Infinity < ... < -0.0 < 0.0 < ... < Infinity < NaN, all NaNs end up last.
+//3. short[] and char[]: one shared sort16 for both. From COUNTING_MIN elements (the JDK's cutoff too), counting sort
+//   over the 65536 possible values, written back with one fill per distinct value; below that, clearing and scanning
+//   65536 counters costs more than the sort, so the values are widened to int and sorted with IntroSort.
+//4. Key/value co-sort: RadixSort.radixSortWithValues, LSD radix sort on the keys that moves the payload in the
+//   same scatter step. It is stable, so equal keys keep the original order of their payloads.
+
+//Time Complexity: O(n) passes for every type (radix or counting), O(n log n) for short and char below COUNTING_MIN.
+//Space Complexity: O(n) scratch arrays, O(65536) counters for short and char.
+
+public class PrimitiveSort {
+
+    public static final int COUNTING_MIN = 1750; //Below this, clearing and scanning the counters costs more than comparing
+
+    public static void main(String[] args) {
+
+        System.out.println("Primitive Sort");
+
+        long[] timestamps = {1_700_000_000_500L, 1_700_000_000_100L, 1_700_000_000_300L};
+        sort(timestamps);
+        System.out.println("long[]:   " + Arrays.toString(timestamps));
+
+        double[] scores = {2.5, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -7.25, Double.POSITIVE_INFINITY, 1e-300};
+        sort(scores);
+        System.out.println("double[]: " + Arrays.toString(scores));
+
+        short[] levels = {300, -12, 7, Short.MIN_VALUE, 7, Short.MAX_VALUE};
+        sort(levels);
+        System.out.println("short[]:  " + Arrays.toString(levels));
+
+        char[] letters = "insertion".toCharArray();
+        sort(letters);
+        System.out.println("char[]:   " + new String(letters));
+
+        int[] keys = {30, 10, 20, 10, 30};
+        int[] rows = {0, 1, 2, 3, 4};
+        sort(keys, rows);
+        System.out.println("keys:     " + Arrays.toString(keys));
+        System.out.println("payload:  " + Arrays.toString(rows)); //[1, 3, 2, 0, 4], stable for equal keys
+    }
+
+    public static void sort(long[] arr) {
+        SortEngine.sort(arr);
+    }
+
+    public static void sort(double[] arr) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = toSortableLong(arr[i]);
+        }
+        sort(keys);
+        for (int i = 0; i < n; i++) {
+            arr[i] = fromSortableLong(keys[i]);
+        }
+    }
+
+    //Signed long order of the result equals Double.compare order (NaNs are canonicalized to one value)
+    public static long toSortableLong(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    public static double fromSortableLong(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+
+    public static void sort(short[] arr) {
+        sort16(arr.length, i -> arr[i], Short.MIN_VALUE, (from, to, value) -> Arrays.fill(arr, from, to, (short) value));
+    }
+
+    public static void sort(char[] arr) {
+        sort16(arr.length, i -> arr[i], Character.MIN_VALUE, (from, to, value) -> Arrays.fill(arr, from, to, (char) value));
+    }
+
+    //Writes value to positions [from, to) of the array being sorted
+    private interface RunWriter {
+        void fill(int from, int to, int value);
+    }
+
+    //Shared by short[] and char[]: the n values read through get are in [min, min + 65535]. The result is written
+    //back as runs of equal values, one fill per distinct value instead of one store per element.
+    private static void sort16(int n, IntUnaryOperator get, int min, RunWriter out) {
+        if (n < COUNTING_MIN) {
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = get.applyAsInt(i);
+            }
+            IntroSort.introSort(values);
+            for (int i = 0, j; i < n; i = j) {
+                for (j = i + 1; j < n && values[j] == values[i]; j++) {
+                }
+                out.fill(i, j, values[i]);
+            }
+            return;
+        }
+        int[] counts = new int[1 << 16];
+        for (int i = 0; i < n; i++) {
+            counts[get.applyAsInt(i) - min]++;
+        }
+        for (int v = 0, k = 0; k < n; v++) {
+            if (counts[v] > 0) {
+                out.fill(k, k + counts[v], v + min);
+                k += counts[v];
+            }
+        }
+    }
+
+    //Sorts keys ascending and applies the same permutation to values (stable)
+    public static void sort(int[] keys, int[] values) {
+        RadixSort.radixSortWithValues(keys, values);
+    }
+
+    //Same as sort(int[], int[]) for long keys, e.g. timestamps with a row index payload
+    public static void sort(long[] keys, int[] values) {
+        RadixSort.radixSortWithValues(keys, values);
+    }
+
+    //Sorts double keys (total order as in sort(double[])) together with an int payload
+    public static void sort(double[] keys, int[] values) {
+        int n = keys.length;
+        long[] sortable = new long[n];
+        for (int i = 0; i < n; i++) {
+            sortable[i] = toSortableLong(keys[i]);
+        }
+        sort(sortable, values);
+        for (int i = 0; i < n; i++) {
+            keys[i] = fromSortableLong(sortable[i]);
+        }
+    }
+
+}
@@ -0,0 +1,325 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Find the k-th smallest element (and percentiles such as p50/p99) without sorting the whole array.
+
+//logic:
+//1. Partition around a pivot with QuickSort.partition. The pivot lands at its final sorted position p.
+//   If k == p we are done, otherwise continue only on the side that contains k (quick sort recurses on both).
+//2. Pivot choice (introselect): median of three is cheap and usually good. When a partition keeps more than
+//   3/4 of the range, the next pivot is the median of medians instead: medians of groups of 5, then their median
+//   found recursively. That pivot has at least 30% of the range on each side, so every bad step is followed by
+//   a step that shrinks the range by a constant factor, which keeps the worst case linear.
+//3. The Lomuto partition puts keys equal to the pivot on the right. When k is on the right, those keys are
+//   gathered right after the pivot first, so a range full of duplicates finishes in one step.
+//4. selectAll places several ranks in one pass: select the middle requested rank, which splits the range,
+//   and recurse on the left and right halves with the ranks that fall in them.
+//5. quantiles uses selectAll for the two ranks around every p * (n - 1) and interpolates linearly between them.
+//6. double[]: the same steps with QuickSort.partition(double[]) and InsertionSort.insertionSort(double[]), which
+//   compare with Double.compare: -0.0 ranks below 0.0 and NaN above every number, like Arrays.sort and
+//   PrimitiveSort.sort(double[]).
+
+//Time Complexity: O(n) worst case for one rank, O(n log q) for q ranks.
+//Space Complexity: O(log n) recursion for the median of medians and selectAll.
+
+public class QuickSelect {
+
+    public static final int INSERTION_CUTOFF = 16;
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
+    public static void main(String[] args) {
+
+        System.out.println("Quick Select Algorithm");
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        int median = select(array, array.length / 2);
+
+        System.out.println("\n\nMedian: " + median);
+        System.out.println("Array after select (left <= median <= right): " + Arrays.toString(array));
+
+        //Latency percentiles without sorting
+        int n = 5_000_000;
+        Random random = new Random(42);
+        double[] latencies = new double[n];
+        for (int i = 0; i < n; i++) {
+            latencies[i] = Math.exp(random.nextGaussian()) * 10; //Log-normal, in ms
+        }
+        double[] copy = latencies.clone();
+        long start = System.nanoTime();
+        double[] percentiles = quantiles(copy, 0.5, 0.9, 0.99, 0.999);
+        long selectTime = System.nanoTime() - start;
+
+        copy = latencies.clone();
+        start = System.nanoTime();
+        Arrays.sort(copy);
+        long sortTime = System.nanoTime() - start;
+
+        System.out.println("\np50 / p90 / p99 / p99.9: " + Arrays.toString(percentiles));
+        System.out.println("quantiles: " + selectTime / 1_000_000 + " ms, full sort: " + sortTime / 1_000_000 + " ms");
+        System.out.println("p99 from the sorted array: " + (copy[(int) (0.99 * (n - 1))]));
+    }
+
+    //Rearranges arr so that arr[k] is the element a sort would put there, with arr[0, k) <= arr[k] <= arr(k, n).
+    //Returns arr[k].
+    public static int select(int[] arr, int k) {
+        checkRank(k, arr.length);
+        select(arr, 0, arr.length - 1, k);
+        return arr[k];
+    }
+
+    //Same as select(arr, k) for the range [low, high], both inclusive. low <= k <= high.
+    public static void select(int[] arr, int low, int high, int k) {
+        int depth = PROBE.enter("QuickSelect"); //The QuickSort.partition and InsertionSort counts below are QuickSelect's
+        try {
+            boolean lastWasBad = false;
+            while (high - low + 1 > INSERTION_CUTOFF) {
+                int size = high - low + 1;
+                int pivotIndex = lastWasBad ? medianOfMedians(arr, low, high) : medianOfThree(arr, low, high);
+                swap(arr, pivotIndex, high); //QuickSort.partition uses arr[high] as the pivot
+                int pivot = arr[high];
+                int p = QuickSort.partition(arr, low, high);
+                if (k < p) {
+                    high = p - 1;
+                } else if (k == p) {
+                    return;
+                } else {
+                    int equalEnd = gatherEqual(arr, p + 1, high, pivot);
+                    if (k < equalEnd) {
+                        return;
+                    }
+                    low = equalEnd;
+                }
+                lastWasBad = high - low + 1 > size - (size >> 2);
+            }
+            if (low < high) {
+                InsertionSort.insertionSort(arr, low, high);
+            }
+        } finally {
+            PROBE.exit(depth);
+        }
+    }
+
+    //After the call every arr[ranks[i]] holds the element a sort would put there. ranks may be in any order.
+    public static void selectAll(int[] arr, int... ranks) {
+        int[] sorted = sortedRanks(ranks, arr.length);
+        selectAll(arr, 0, arr.length - 1, sorted, 0, sorted.length);
+    }
+
+    private static void selectAll(int[] arr, int low, int high, int[] ranks, int from, int to) {
+        if (from >= to || low >= high) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        int k = ranks[middle];
+        select(arr, low, high, k);
+        selectAll(arr, low, k - 1, ranks, from, middle);
+        selectAll(arr, k + 1, high, ranks, middle + 1, to);
+    }
+
+    //Quantiles with linear interpolation between the closest ranks, p in [0, 1]. Reorders arr.
+    public static double[] quantiles(int[] arr, double... ps) {
+        int n = arr.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("No quantiles of an empty array");
+        }
+        int[] ranks = quantileRanks(ps, n);
+        selectAll(arr, ranks);
+        double[] result = new double[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            double position = ps[i] * (n - 1);
+            int below = ranks[2 * i];
+            int above = ranks[2 * i + 1];
+            result[i] = arr[below] + (position - below) * ((double) arr[above] - arr[below]);
+        }
+        return result;
+    }
+
+    public static double select(double[] arr, int k) {
+        checkRank(k, arr.length);
+        select(arr, 0, arr.length - 1, k);
+        return arr[k];
+    }
+
+    public static void select(double[] arr, int low, int high, int k) {
+        int depth = PROBE.enter("QuickSelect");
+        try {
+            boolean lastWasBad = false;
+            while (high - low + 1 > INSERTION_CUTOFF) {
+                int size = high - low + 1;
+                int pivotIndex = lastWasBad ? medianOfMedians(arr, low, high) : medianOfThree(arr, low, high);
+                swap(arr, pivotIndex, high);
+                double pivot = arr[high];
+                int p = QuickSort.partition(arr, low, high);
+                if (k < p) {
+                    high = p - 1;
+                } else if (k == p) {
+                    return;
+                } else {
+                    int equalEnd = gatherEqual(arr, p + 1, high, pivot);
+                    if (k < equalEnd) {
+                        return;
+                    }
+                    low = equalEnd;
+                }
+                lastWasBad = high - low + 1 > size - (size >> 2);
+            }
+            if (low < high) {
+                InsertionSort.insertionSort(arr, low, high);
+            }
+        } finally {
+            PROBE.exit(depth);
+        }
+    }
+
+    public static void selectAll(double[] arr, int... ranks) {
+        int[] sorted = sortedRanks(ranks, arr.length);
+        selectAll(arr, 0, arr.length - 1, sorted, 0, sorted.length);
+    }
+
+    private static void selectAll(double[] arr, int low, int high, int[] ranks, int from, int to) {
+        if (from >= to || low >= high) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        int k = ranks[middle];
+        select(arr, low, high, k);
+        selectAll(arr, low, k - 1, ranks, from, middle);
+        selectAll(arr, k + 1, high, ranks, middle + 1, to);
+    }
+
+    public static double[] quantiles(double[] arr, double... ps) {
+        int n = arr.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("No quantiles of an empty array");
+        }
+        int[] ranks = quantileRanks(ps, n);
+        selectAll(arr, ranks);
+        double[] result = new double[ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            double position = ps[i] * (n - 1);
+            int below = ranks[2 * i];
+            int above = ranks[2 * i + 1];
+            result[i] = below == above ? arr[below] : arr[below] + (position - below) * (arr[above] - arr[below]);
+        }
+        return result;
+    }
+
+    //Pivot index: median of arr[low], arr[middle], arr[high]
+    private static int medianOfThree(int[] arr, int low, int high) {
+        int middle = (low + high) >>> 1;
+        int a = arr[low], b = arr[middle], c = arr[high];
+        if (a < b) {
+            return b < c ? middle : (a < c ? high : low);
+        }
+        return a < c ? low : (b < c ? high : middle);
+    }
+
+    //Sorts groups of 5, moves their medians to the front of the range and selects the median of those
+    private static int medianOfMedians(int[] arr, int low, int high) {
+        int medians = low;
+        for (int group = low; group <= high; group += 5) {
+            int groupHigh = Math.min(group + 4, high);
+            InsertionSort.insertionSort(arr, group, groupHigh);
+            swap(arr, (group + groupHigh) >>> 1, medians++);
+        }
+        int middle = (low + medians - 1) >>> 1;
+        select(arr, low, medians - 1, middle);
+        return middle;
+    }
+
+    //Moves the keys equal to pivot to the front of [from, to]; returns the index after the last of them
+    private static int gatherEqual(int[] arr, int from, int to, int pivot) {
+        int end = from;
+        for (int i = from; i <= to; i++) {
+            if (arr[i] == pivot) {
+                swap(arr, i, end++);
+            }
+        }
+        return end;
+    }
+
+    private static int medianOfThree(double[] arr, int low, int high) {
+        int middle = (low + high) >>> 1;
+        double a = arr[low], b = arr[middle], c = arr[high];
+        if (Double.compare(a, b) < 0) {
+            return Double.compare(b, c) < 0 ? middle : (Double.compare(a, c) < 0 ? high : low);
+        }
+        return Double.compare(a, c) < 0 ? low : (Double.compare(b, c) < 0 ? high : middle);
+    }
+
+    private static int medianOfMedians(double[] arr, int low, int high) {
+        int medians = low;
+        for (int group = low; group <= high; group += 5) {
+            int groupHigh = Math.min(group + 4, high);
+            InsertionSort.insertionSort(arr, group, groupHigh);
+            swap(arr, (group + groupHigh) >>> 1, medians++);
+        }
+        int middle = (low + medians - 1) >>> 1;
+        select(arr, low, medians - 1, middle);
+        return middle;
+    }
+
+    private static int gatherEqual(double[] arr, int from, int to, double pivot) {
+        int end = from;
+        for (int i = from; i <= to; i++) {
+            if (Double.compare(arr[i], pivot) == 0) {
+                swap(arr, i, end++);
+            }
+        }
+        return end;
+    }
+
+    //Two ranks per p: floor and ceil of p * (n - 1)
+    private static int[] quantileRanks(double[] ps, int n) {
+        int[] ranks = new int[2 * ps.length];
+        for (int i = 0; i < ps.length; i++) {
+            double p = ps[i];
+            if (!(p >= 0 && p <= 1)) {
+                throw new IllegalArgumentException("Quantile must be in [0, 1], got " + p);
+            }
+            double position = p * (n - 1);
+            ranks[2 * i] = (int) Math.floor(position);
+            ranks[2 * i + 1] = (int) Math.ceil(position);
+        }
+        return ranks;
+    }
+
+    private static int[] sortedRanks(int[] ranks, int n) {
+        int[] sorted = ranks.clone();
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            checkRank(sorted[i], n);
+            if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static void checkRank(int k, int n) {
+        if (k < 0 || k >= n) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for " + n + " elements");
+        }
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    private static void swap(double[] arr, int i, int j) {
+        double temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+}
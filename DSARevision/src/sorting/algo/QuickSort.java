@@ -12,6 +12,8 @@ package sorting.algo;
 
 public class QuickSort {
 
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
     public static void main(String[] args) {
 
         System.out.println("Quick Sort Algorithm");
@@ -32,10 +34,38 @@ public class QuickSort {
     }
 
     public static void quickSort(int[] arr, int low, int high) {
-        if (low < high) {
-            int pi = partition(arr, low, high); // Partition the array
-            quickSort(arr, low, pi - 1); // Sort the left subarray
-            quickSort(arr, pi + 1, high); // Sort the right subarray
+        int depth = PROBE.enter("QuickSort");
+        try {
+            if (low < high) {
+                int pi = partition(arr, low, high); // Partition the array
+                quickSort(arr, low, pi - 1); // Sort the left subarray
+                quickSort(arr, pi + 1, high); // Sort the right subarray
+            }
+        } finally {
+            PROBE.exit(depth); //Also when a deep recursion throws, so the probe's nesting stays balanced
+        }
+    }
+
+    //Same as quickSort, but ranges of at most cutoff elements are handed to baseCase,
+    //e.g. InsertionSort::insertionSort or SortingNetwork::sort, instead of partitioning them further.
+    public static void quickSort(int[] arr, int low, int high, int cutoff, RangeSorter baseCase) {
+        int depth = PROBE.enter("QuickSort");
+        try {
+            while (high - low + 1 > cutoff) {
+                int pi = partition(arr, low, high);
+                if (pi - low < high - pi) {//Recurse into the smaller side, loop on the larger one
+                    quickSort(arr, low, pi - 1, cutoff, baseCase);
+                    low = pi + 1;
+                } else {
+                    quickSort(arr, pi + 1, high, cutoff, baseCase);
+                    high = pi - 1;
+                }
+            }
+            if (low < high) {
+                baseCase.sort(arr, low, high);
+            }
+        } finally {
+            PROBE.exit(depth);
         }
     }
 
@@ -44,7 +74,9 @@ public class QuickSort {
         int i = low - 1;
 
         for(int j = low; j < high; j++){
+            PROBE.compare();
             if(arr[j] < pivot){// If the current element is less than the pivot element
+                PROBE.swap();
                 i++;
                 int temp = arr[i];
                 arr[i] = arr[j];
@@ -52,6 +84,7 @@ public class QuickSort {
             }
         }
         // Swap the pivot element with the element at index i+1
+        PROBE.swap();
         int temp = arr[i+1];
         arr[i+1] = arr[high];
         arr[high] = temp;
@@ -59,6 +92,30 @@ public class QuickSort {
         return i+1;// Return the partitioning index
     }
 
+    //Same Lomuto scheme for doubles in the total order of Double.compare (-0.0 before 0.0, NaN last),
+    //the order of Arrays.sort and PrimitiveSort.sort(double[])
+    public static int partition(double[] arr, int low, int high) {
+        double pivot = arr[high];
+        int i = low - 1;
+
+        for(int j = low; j < high; j++){
+            PROBE.compare();
+            if(Double.compare(arr[j], pivot) < 0){
+                PROBE.swap();
+                i++;
+                double temp = arr[i];
+                arr[i] = arr[j];
+                arr[j] = temp;
+            }
+        }
+        PROBE.swap();
+        double temp = arr[i+1];
+        arr[i+1] = arr[high];
+        arr[high] = temp;
+
+        return i+1;
+    }
+
 
 
 }
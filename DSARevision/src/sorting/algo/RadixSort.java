@@ -0,0 +1,311 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Implement LSD radix sort for int and long keys (negative keys included).
+
+//logic:
+//1. Find min and max. Sorting key - min as an unsigned number gives the same order as sorting the signed keys,
+//   and it only has as many bits as the key range, so small ranges need fewer passes.
+//2. Split the key into 11 bit digits and build the histogram of every digit in one single pass over the input.
+//3. For each digit, from least to most significant: turn its histogram into start offsets and scatter the
+//   elements into the scratch buffer, then swap the roles of the two arrays.
+//   A digit where every element lands in the same bucket is skipped.
+//4. Each pass is stable, so after the last pass the array is sorted.
+//5. radixSortWithValues scatters an int payload along with every key, into a second pair of scratch arrays.
+
+//Time Complexity: O(d * (n + 2^11)), where d = ceil(bits of (max - min) / 11), at most 3 passes for int and 6 for long.
+//Space Complexity: O(n) for the scratch buffer plus d histograms of 2^11 counters.
+
+public class RadixSort {
+
+    public static final int DIGIT_BITS = 11;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int MASK = RADIX - 1;
+
+    public static void main(String[] args) {
+
+        System.out.println("Radix Sort Algorithm");
+
+        int[] array = {64, -34, 25, 12, -22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        radixSort(array); // Call the sorting method
+
+        System.out.println("\n\nSorted Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        long[] timestamps = {1_700_000_000_500L, 1_700_000_000_100L, -5L, 1_700_000_000_300L, Long.MAX_VALUE, Long.MIN_VALUE};
+        radixSort(timestamps);
+        System.out.println("\n\nSorted long keys: " + Arrays.toString(timestamps));
+
+        int n = 5_000_000;
+        int[] big = new Random(42).ints(n).toArray();
+        int[] copy = big.clone();
+        long start = System.nanoTime();
+        radixSort(big);
+        long radix = System.nanoTime() - start;
+        start = System.nanoTime();
+        IntroSort.introSort(copy);
+        long intro = System.nanoTime() - start;
+        System.out.println("\n" + n + " random ints, radix: " + radix / 1_000_000 + " ms, introsort: "
+                + intro / 1_000_000 + " ms, same result: " + Arrays.equals(big, copy));
+    }
+
+    public static void radixSort(int[] arr) {
+        if (arr.length < 2) {
+            return;
+        }
+        radixSort(arr, new int[arr.length]);
+    }
+
+    //buffer must be at least as long as arr, callers that sort repeatedly can reuse it
+    public static void radixSort(int[] arr, int[] buffer) {
+        radixSort(arr, buffer, 0, arr.length);
+    }
+
+    //Sorts arr[from, to) using buffer[from, to) as scratch space
+    public static void radixSort(int[] arr, int[] buffer, int from, int to) {
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+        int min = arr[from], max = arr[from];
+        for (int i = from + 1; i < to; i++) {
+            int value = arr[i];
+            if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+        }
+        long range = (long) max - min;
+        if (range == 0) {
+            return;
+        }
+        int passes = passes(range);
+        int[] counts = histograms(arr, from, to, min, passes);
+
+        int[] src = arr;
+        int[] dst = buffer;
+        for (int p = 0; p < passes; p++) {
+            int base = p * RADIX;
+            int shift = p * DIGIT_BITS;
+            if (!prefixSums(counts, base, n)) {
+                continue; //Every key has the same digit here
+            }
+            for (int i = from; i < to; i++) {
+                int value = src[i];
+                dst[from + counts[base + (((value - min) >>> shift) & MASK)]++] = value;
+            }
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, from, arr, from, n);
+        }
+    }
+
+    public static void radixSort(long[] arr) {
+        if (arr.length < 2) {
+            return;
+        }
+        radixSort(arr, new long[arr.length]);
+    }
+
+    public static void radixSort(long[] arr, long[] buffer) {
+        radixSort(arr, buffer, 0, arr.length);
+    }
+
+    //Sorts arr[from, to) using buffer[from, to) as scratch space
+    public static void radixSort(long[] arr, long[] buffer, int from, int to) {
+        int n = to - from;
+        if (n < 2) {
+            return;
+        }
+        long min = arr[from], max = arr[from];
+        for (int i = from + 1; i < to; i++) {
+            long value = arr[i];
+            if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+        }
+        long range = max - min; //Wraps for huge ranges, but is still correct read as unsigned
+        if (range == 0) {
+            return;
+        }
+        int passes = passes(range);
+        int[] counts = histograms(arr, from, to, min, passes);
+
+        long[] src = arr;
+        long[] dst = buffer;
+        for (int p = 0; p < passes; p++) {
+            int base = p * RADIX;
+            int shift = p * DIGIT_BITS;
+            if (!prefixSums(counts, base, n)) {
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                long value = src[i];
+                dst[from + counts[base + (int) (((value - min) >>> shift) & MASK)]++] = value;
+            }
+            long[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr) {
+            System.arraycopy(src, from, arr, from, n);
+        }
+    }
+
+    //Sorts keys ascending and applies the same permutation to values, so values[i] stays with keys[i].
+    //Stable, equal keys keep the order of their values.
+    public static void radixSortWithValues(int[] keys, int[] values) {
+        int n = keys.length;
+        checkValues(n, values);
+        if (n < 2) {
+            return;
+        }
+        int min = keys[0], max = keys[0];
+        for (int i = 1; i < n; i++) {
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+        }
+        long range = (long) max - min;
+        if (range == 0) {
+            return;
+        }
+        int passes = passes(range);
+        int[] counts = histograms(keys, 0, n, min, passes);
+
+        int[] srcKeys = keys, dstKeys = new int[n];
+        int[] srcValues = values, dstValues = new int[n];
+        for (int p = 0; p < passes; p++) {
+            int base = p * RADIX;
+            int shift = p * DIGIT_BITS;
+            if (!prefixSums(counts, base, n)) {
+                continue;
+            }
+            //Same scatter as radixSort(int[]), the value moves to the slot of its key
+            for (int i = 0; i < n; i++) {
+                int key = srcKeys[i];
+                int target = counts[base + (((key - min) >>> shift) & MASK)]++;
+                dstKeys[target] = key;
+                dstValues[target] = srcValues[i];
+            }
+            int[] temp = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = temp;
+            temp = srcValues;
+            srcValues = dstValues;
+            dstValues = temp;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+            System.arraycopy(srcValues, 0, values, 0, n);
+        }
+    }
+
+    public static void radixSortWithValues(long[] keys, int[] values) {
+        int n = keys.length;
+        checkValues(n, values);
+        if (n < 2) {
+            return;
+        }
+        long min = keys[0], max = keys[0];
+        for (int i = 1; i < n; i++) {
+            min = Math.min(min, keys[i]);
+            max = Math.max(max, keys[i]);
+        }
+        long range = max - min; //Read as unsigned
+        if (range == 0) {
+            return;
+        }
+        int passes = passes(range);
+        int[] counts = histograms(keys, 0, n, min, passes);
+
+        long[] srcKeys = keys, dstKeys = new long[n];
+        int[] srcValues = values, dstValues = new int[n];
+        for (int p = 0; p < passes; p++) {
+            int base = p * RADIX;
+            int shift = p * DIGIT_BITS;
+            if (!prefixSums(counts, base, n)) {
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                long key = srcKeys[i];
+                int target = counts[base + (int) (((key - min) >>> shift) & MASK)]++;
+                dstKeys[target] = key;
+                dstValues[target] = srcValues[i];
+            }
+            long[] tempKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = tempKeys;
+            int[] tempValues = srcValues;
+            srcValues = dstValues;
+            dstValues = tempValues;
+        }
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, n);
+            System.arraycopy(srcValues, 0, values, 0, n);
+        }
+    }
+
+    private static void checkValues(int n, int[] values) {
+        if (values.length != n) {
+            throw new IllegalArgumentException("keys and values must have the same length");
+        }
+    }
+
+    //Digit passes needed for keys - min in [0, range], range read as unsigned
+    private static int passes(long range) {
+        return (64 - Long.numberOfLeadingZeros(range) + DIGIT_BITS - 1) / DIGIT_BITS;
+    }
+
+    //The histograms of all passes digits of arr[from, to) - min, built in one pass over the input
+    private static int[] histograms(int[] arr, int from, int to, int min, int passes) {
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < to; i++) {
+            int key = arr[i] - min; //Read as unsigned
+            for (int p = 0; p < passes; p++) {
+                counts[p * RADIX + ((key >>> (p * DIGIT_BITS)) & MASK)]++;
+            }
+        }
+        return counts;
+    }
+
+    private static int[] histograms(long[] arr, int from, int to, long min, int passes) {
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < to; i++) {
+            long key = arr[i] - min;
+            for (int p = 0; p < passes; p++) {
+                counts[p * RADIX + (int) ((key >>> (p * DIGIT_BITS)) & MASK)]++;
+            }
+        }
+        return counts;
+    }
+
+    //Turns one histogram into bucket start offsets. Returns false if all n keys fall in one bucket.
+    static boolean prefixSums(int[] counts, int base, int n) {
+        int sum = 0;
+        for (int d = base; d < base + RADIX; d++) {
+            int count = counts[d];
+            if (count == n) {
+                return false;
+            }
+            counts[d] = sum;
+            sum += count;
+        }
+        return true;
+    }
+
+}
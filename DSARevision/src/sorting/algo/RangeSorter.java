@@ -0,0 +1,10 @@
+package sorting.algo;
+
+//A sort for the range [low, high] (both inclusive) of an array, used as the pluggable base case
+//of the divide and conquer sorts, e.g. InsertionSort::insertionSort or SortingNetwork::sort.
+@FunctionalInterface
+public interface RangeSorter {
+
+    void sort(int[] arr, int low, int high);
+
+}
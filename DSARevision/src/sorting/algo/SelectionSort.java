@@ -13,6 +13,8 @@ package sorting.algo;
 
 public class SelectionSort {
 
+    private static final SortProbe PROBE = SortProbe.ACTIVE;
+
     public static void main(String[] args) {
 
         System.out.println("Selection Sort Algorithm");
@@ -33,23 +35,30 @@ public class SelectionSort {
     }
 
     public static void selectionSort(int[] arr) {
-        int n = arr.length;
+        int depth = PROBE.enter("SelectionSort");
+        try {
+            int n = arr.length;
 
-        //Iterate through the array
-        for(int i = 0; i < n -1; i++){
-            int minIndex = i;
+            //Iterate through the array
+            for(int i = 0; i < n -1; i++){
+                int minIndex = i;
 
-            //Find the minimum element in the unsorted part of the array
-            for(int j = i+1; j < n; j++){
-                if(arr[j] < arr[minIndex]){//If the current element is smaller than the minimum element
-                    minIndex = j;
+                //Find the minimum element in the unsorted part of the array
+                for(int j = i+1; j < n; j++){
+                    PROBE.compare();
+                    if(arr[j] < arr[minIndex]){//If the current element is smaller than the minimum element
+                        minIndex = j;
+                    }
                 }
-            }
 
-            //Swap the minimum element with the first element of the unsorted part of the array
-            int temp = arr[minIndex];
-            arr[minIndex] = arr[i];
-            arr[i] = temp;
+                //Swap the minimum element with the first element of the unsorted part of the array
+                PROBE.swap();
+                int temp = arr[minIndex];
+                arr[minIndex] = arr[i];
+                arr[i] = temp;
+            }
+        } finally {
+            PROBE.exit(depth);
         }
     }
 
@@ -0,0 +1,149 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Pick the right sorting algorithm automatically from the size and key range of the input.
+
+//logic:
+//1. Up to INSERTION_MAX elements, insertion sort wins because it has no setup cost.
+//2. Otherwise scan the array once for min, max and the number of descents. A sorted array is returned as is.
+//3. Few descents (arr[i] < arr[i - 1]) means the input is a handful of sorted runs, TimSort merges those in ~O(n).
+//4. Radix sort costs about one pass per 11 bits of (max - min), comparison sorts cost about log2(n) passes.
+//   Use RadixSort when the array is big enough to pay for its histograms and needs fewer digit passes
+//   than a comparison sort needs levels, otherwise use IntroSort.
+//5. long[] has no TimSort. Below RADIX_MIN elements it uses the long[] IntroSort, from RADIX_MIN on RadixSort,
+//   which even with all 6 passes of a full 64 bit range beats introsort there.
+
+//Time Complexity: O(n) scan plus the cost of the chosen algorithm.
+//Space Complexity: O(n) when radix sort is chosen, O(logn) otherwise.
+
+public class SortEngine {
+
+    public static final int INSERTION_MAX = 32;
+    public static final int RADIX_MIN = 1 << 11; //Below this the 2^11 bucket histograms dominate
+    public static final int PRESORTED_RATIO = 256; //At most one descent per 256 elements counts as presorted
+
+    public enum Algorithm { NONE, INSERTION, INTROSORT, RADIX, TIMSORT }
+
+    public static void main(String[] args) {
+
+        System.out.println("Sort Engine");
+
+        int[] small = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Small array uses " + choose(small));
+        sort(small);
+        System.out.println(Arrays.toString(small));
+
+        Random random = new Random(42);
+        int[] ids = random.ints(100_000).toArray();
+        System.out.println("Random 32 bit ids use " + choose(ids));
+        sort(ids);
+
+        int[] sorted = ids.clone();
+        System.out.println("Already sorted ids use " + choose(sorted));
+
+        long[] timestamps = random.longs(100_000, 1_700_000_000_000L, 1_700_086_400_000L).toArray();
+        System.out.println("One day of millisecond timestamps uses " + choose(timestamps));
+        sort(timestamps);
+
+        long[] hashes = random.longs(1_000).toArray();
+        System.out.println("1000 random 64 bit hashes use " + choose(hashes));
+        sort(hashes);
+    }
+
+    public static void sort(int[] arr) {
+        switch (choose(arr)) {
+            case INSERTION:
+                InsertionSort.insertionSort(arr);
+                break;
+            case INTROSORT:
+                IntroSort.introSort(arr);
+                break;
+            case RADIX:
+                RadixSort.radixSort(arr);
+                break;
+            case TIMSORT:
+                TimSort.timSort(arr);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public static void sort(long[] arr) {
+        switch (choose(arr)) {
+            case INSERTION:
+                InsertionSort.insertionSort(arr, 0, arr.length - 1);
+                break;
+            case INTROSORT:
+                IntroSort.introSort(arr, 0, arr.length - 1);
+                break;
+            case RADIX:
+                RadixSort.radixSort(arr);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public static Algorithm choose(int[] arr) {
+        int n = arr.length;
+        if (n < 2) {
+            return Algorithm.NONE;
+        }
+        if (n <= INSERTION_MAX) {
+            return Algorithm.INSERTION;
+        }
+        int min = arr[0], max = arr[0];
+        int descents = 0;
+        for (int i = 1; i < n; i++) {
+            int value = arr[i];
+            if (value < arr[i - 1]) {
+                descents++;
+            }
+            if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+        }
+        if (descents == 0) {
+            return Algorithm.NONE;
+        }
+        if (descents <= n / PRESORTED_RATIO) {
+            return Algorithm.TIMSORT;
+        }
+        return pick(n, (long) max - min);
+    }
+
+    public static Algorithm choose(long[] arr) {
+        int n = arr.length;
+        if (n < 2) {
+            return Algorithm.NONE;
+        }
+        if (n <= INSERTION_MAX) {
+            return Algorithm.INSERTION;
+        }
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) {
+            sorted = arr[i - 1] <= arr[i];
+        }
+        if (sorted) {
+            return Algorithm.NONE;
+        }
+        return n < RADIX_MIN ? Algorithm.INTROSORT : Algorithm.RADIX;
+    }
+
+    private static Algorithm pick(int n, long range) {
+        if (n < RADIX_MIN) {
+            return Algorithm.INTROSORT;
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(range);
+        int radixPasses = (bits + RadixSort.DIGIT_BITS - 1) / RadixSort.DIGIT_BITS;
+        int comparisonLevels = 32 - Integer.numberOfLeadingZeros(n); //~log2(n)
+        //A radix pass (histogram + scatter) costs roughly what three comparison levels do
+        return 3 * radixPasses <= comparisonLevels ? Algorithm.RADIX : Algorithm.INTROSORT;
+    }
+
+}
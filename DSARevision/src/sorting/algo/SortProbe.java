@@ -0,0 +1,50 @@
+package sorting.algo;
+
+//problem: Count comparisons, swaps, element moves, recursion depth and temp space of the sorts, at zero cost when off.
+
+//logic:
+//1. The sorts call a probe at every comparison, swap and move. The probe they use is the static final ACTIVE field,
+//   copied into a private static final PROBE field of each sort, which is compiled away as described in 2.
+//2. ACTIVE is chosen once at class load time from the system property sorting.probe. When it is off,
+//   ACTIVE is the NOOP probe: the JIT sees a constant receiver with empty methods, inlines them and
+//   removes the calls completely, so the hot loops compile exactly as without instrumentation.
+//3. When -Dsorting.probe=true is set, ACTIVE is a CountingSortProbe that keeps per-call and aggregate stats.
+//4. enter/exit wrap every (possibly recursive) sort method. The outermost exit ends one sort call.
+//   enter returns the nesting depth it found and the sort passes it back to exit in a finally block. exit restores
+//   that depth instead of counting down, so a sort that throws (a StackOverflowError can make the innermost exits
+//   fail as well) is back at the right depth as soon as one enclosing exit runs.
+
+public interface SortProbe {
+
+    SortProbe NOOP = new SortProbe() {
+    };
+
+    SortProbe ACTIVE = Boolean.getBoolean("sorting.probe") ? new CountingSortProbe() : NOOP;
+
+    //Returns the depth to hand back to exit
+    default int enter(String algorithm) {
+        return 0;
+    }
+
+    default void exit(int depth) {
+    }
+
+    default void compare() {
+    }
+
+    default void swap() {
+    }
+
+    //An element written to a new position (shifts, copies to and from temp arrays)
+    default void move(int count) {
+    }
+
+    //Temporary space allocated by the sort
+    default void allocate(long bytes) {
+    }
+
+    static boolean enabled() {
+        return ACTIVE != NOOP;
+    }
+
+}
@@ -0,0 +1,246 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Sort small blocks (8 to 64 elements) without data dependent branches, as the base case of QuickSort and MergeSort.
+
+//logic:
+//1. A bitonic sorting network is a fixed list of compare-exchange steps: for k = 2, 4, .. n and j = k/2, .. 1,
+//   element i is compared with element i ^ j, and the pair is put in ascending order if (i & k) == 0, else descending.
+//   Which pairs are compared never depends on the data, so there is nothing for the branch predictor to miss.
+//2. A compare-exchange is min + max, which the JIT turns into conditional moves instead of jumps.
+//3. Blocks whose size is not a power of two are copied into a per-thread scratch block padded with MAX_VALUE.
+//4. mergeBlocks merges two sorted blocks of equal power of two size: reverse the second one, which makes the
+//   whole range bitonic, then run only the last stage (k = n) of the network.
+//5. If the JVM runs with --add-modules jdk.incubator.vector and VectorSortingNetwork (src-incubator) is on the
+//   classpath, power of two blocks go to its Vector API kernel that does 8 int or 4 long compare-exchanges per
+//   instruction. Otherwise, or with -Dsorting.network.scalar=true, the scalar network below is used.
+
+//Time Complexity: O(n log^2 n) compare-exchanges, which for n <= 64 is a small fixed amount of straight-line work.
+//Space Complexity: O(1), one 64 element scratch block per thread.
+
+public class SortingNetwork {
+
+    public static final int MAX_BLOCK = 64;
+
+    //Operations the Vector API kernel provides. n is a power of two with at least one full vector.
+    interface Kernel {
+        int intLanes();
+
+        int longLanes();
+
+        void sort(int[] arr, int from, int n);
+
+        void sort(long[] arr, int from, int n);
+
+        void merge(int[] arr, int from, int half);
+
+        void merge(long[] arr, int from, int half);
+    }
+
+    static final Kernel VECTOR = loadVectorKernel();
+
+    private static final ThreadLocal<int[]> INT_SCRATCH = ThreadLocal.withInitial(() -> new int[MAX_BLOCK]);
+    private static final ThreadLocal<long[]> LONG_SCRATCH = ThreadLocal.withInitial(() -> new long[MAX_BLOCK]);
+
+    public static void main(String[] args) {
+
+        System.out.println("Sorting Network");
+        System.out.println("Kernel: " + (VECTOR == null ? "scalar" : "Vector API"));
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        sort(array, 0, array.length - 1);
+        System.out.println("Sorted block: " + Arrays.toString(array));
+
+        int[] blocks = {1, 5, 9, 13, 2, 6, 10, 14};
+        mergeBlocks(blocks, 0, 4);
+        System.out.println("Merged blocks: " + Arrays.toString(blocks));
+
+        //As the base case of QuickSort and MergeSort
+        int n = 2_000_000;
+        int[] input = new Random(42).ints(n).toArray();
+        int[] expected = input.clone();
+        Arrays.sort(expected);
+
+        int[] arr = input.clone();
+        long start = System.nanoTime();
+        QuickSort.quickSort(arr, 0, n - 1, 32, SortingNetwork::sort);
+        long quick = System.nanoTime() - start;
+        System.out.println("QuickSort with network base case: " + quick / 1_000_000 + " ms, correct: "
+                + Arrays.equals(arr, expected));
+
+        arr = input.clone();
+        start = System.nanoTime();
+        MergeSort.mergeSort(arr, new int[n], 0, n - 1, 32, SortingNetwork::sort);
+        long merge = System.nanoTime() - start;
+        System.out.println("MergeSort with network base case: " + merge / 1_000_000 + " ms, correct: "
+                + Arrays.equals(arr, expected));
+    }
+
+    //Sorts arr[low, high]. Ranges longer than MAX_BLOCK fall back to insertion sort.
+    public static void sort(int[] arr, int low, int high) {
+        int n = high - low + 1;
+        if (n < 2) {
+            return;
+        }
+        if (n > MAX_BLOCK) {
+            InsertionSort.insertionSort(arr, low, high);
+            return;
+        }
+        if (Integer.bitCount(n) == 1) {
+            sortPowerOfTwo(arr, low, n);
+            return;
+        }
+        int padded = Integer.highestOneBit(n) << 1;
+        int[] block = INT_SCRATCH.get();
+        System.arraycopy(arr, low, block, 0, n);
+        Arrays.fill(block, n, padded, Integer.MAX_VALUE); //Padding sorts to the end
+        sortPowerOfTwo(block, 0, padded);
+        System.arraycopy(block, 0, arr, low, n);
+    }
+
+    public static void sort(long[] arr, int low, int high) {
+        int n = high - low + 1;
+        if (n < 2) {
+            return;
+        }
+        if (n > MAX_BLOCK) {
+            for (int i = low + 1; i <= high; i++) {
+                long current = arr[i];
+                int j = i - 1;
+                while (j >= low && arr[j] > current) {
+                    arr[j + 1] = arr[j];
+                    j--;
+                }
+                arr[j + 1] = current;
+            }
+            return;
+        }
+        if (Long.bitCount(n) == 1) {
+            sortPowerOfTwo(arr, low, n);
+            return;
+        }
+        int padded = Integer.highestOneBit(n) << 1;
+        long[] block = LONG_SCRATCH.get();
+        System.arraycopy(arr, low, block, 0, n);
+        Arrays.fill(block, n, padded, Long.MAX_VALUE);
+        sortPowerOfTwo(block, 0, padded);
+        System.arraycopy(block, 0, arr, low, n);
+    }
+
+    //Merges the sorted blocks arr[from, from + half) and arr[from + half, from + 2 * half), half a power of two
+    public static void mergeBlocks(int[] arr, int from, int half) {
+        checkPowerOfTwo(half);
+        if (VECTOR != null && half >= VECTOR.intLanes()) {
+            VECTOR.merge(arr, from, half);
+            return;
+        }
+        int n = 2 * half;
+        for (int i = from + half, j = from + n - 1; i < j; i++, j--) {//Ascending + descending = bitonic
+            int temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+        for (int j = half; j > 0; j >>= 1) {
+            for (int i = 0; i < n; i++) {
+                int l = i ^ j;
+                if (l > i) {
+                    int x = arr[from + i];
+                    int y = arr[from + l];
+                    arr[from + i] = Math.min(x, y);
+                    arr[from + l] = Math.max(x, y);
+                }
+            }
+        }
+    }
+
+    public static void mergeBlocks(long[] arr, int from, int half) {
+        checkPowerOfTwo(half);
+        if (VECTOR != null && half >= VECTOR.longLanes()) {
+            VECTOR.merge(arr, from, half);
+            return;
+        }
+        int n = 2 * half;
+        for (int i = from + half, j = from + n - 1; i < j; i++, j--) {
+            long temp = arr[i];
+            arr[i] = arr[j];
+            arr[j] = temp;
+        }
+        for (int j = half; j > 0; j >>= 1) {
+            for (int i = 0; i < n; i++) {
+                int l = i ^ j;
+                if (l > i) {
+                    long x = arr[from + i];
+                    long y = arr[from + l];
+                    arr[from + i] = Math.min(x, y);
+                    arr[from + l] = Math.max(x, y);
+                }
+            }
+        }
+    }
+
+    private static void sortPowerOfTwo(int[] arr, int from, int n) {
+        if (VECTOR != null && n >= VECTOR.intLanes()) {
+            VECTOR.sort(arr, from, n);
+            return;
+        }
+        for (int k = 2; k <= n; k <<= 1) {
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                for (int i = 0; i < n; i++) {
+                    int l = i ^ j;
+                    if (l > i) {
+                        int x = arr[from + i];
+                        int y = arr[from + l];
+                        int min = Math.min(x, y);
+                        int max = Math.max(x, y);
+                        boolean ascending = (i & k) == 0;
+                        arr[from + i] = ascending ? min : max;
+                        arr[from + l] = ascending ? max : min;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void sortPowerOfTwo(long[] arr, int from, int n) {
+        if (VECTOR != null && n >= VECTOR.longLanes()) {
+            VECTOR.sort(arr, from, n);
+            return;
+        }
+        for (int k = 2; k <= n; k <<= 1) {
+            for (int j = k >> 1; j > 0; j >>= 1) {
+                for (int i = 0; i < n; i++) {
+                    int l = i ^ j;
+                    if (l > i) {
+                        long x = arr[from + i];
+                        long y = arr[from + l];
+                        long min = Math.min(x, y);
+                        long max = Math.max(x, y);
+                        boolean ascending = (i & k) == 0;
+                        arr[from + i] = ascending ? min : max;
+                        arr[from + l] = ascending ? max : min;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkPowerOfTwo(int half) {
+        if (half < 1 || Integer.bitCount(half) != 1) {
+            throw new IllegalArgumentException("Block size must be a power of two, got " + half);
+        }
+    }
+
+    private static Kernel loadVectorKernel() {
+        if (Boolean.getBoolean("sorting.network.scalar")) {
+            return null;
+        }
+        try {
+            return (Kernel) Class.forName("sorting.algo.VectorSortingNetwork").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; //Kernel not compiled in, or jdk.incubator.vector not added at runtime
+        }
+    }
+
+}
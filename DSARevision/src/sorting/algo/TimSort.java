@@ -0,0 +1,307 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Implement an adaptive natural merge sort (TimSort style) that is close to O(n) on mostly sorted input.
+
+//logic:
+//1. Scan for natural runs: a non-descending run is kept, a strictly descending run is reversed in place
+//   (strict so that equal elements never swap and the sort stays stable).
+//2. Runs shorter than minRun (between 16 and 32) are extended with InsertionSort.binaryInsertionSort.
+//3. Push every run on a small stack and merge neighbours whenever the lengths break the invariants
+//   len[i-2] > len[i-1] + len[i] and len[i-1] > len[i]. This keeps merges balanced and the stack O(logn) deep.
+//4. Before merging two runs, gallop (exponential + binary search) to skip the prefix of the first run that is
+//   already smaller than the second run and the suffix of the second run that is already larger than the first.
+//5. The merge is MergeSort.merge with a scratch buffer (copy the left run out, merge back), plus galloping:
+//   when one run wins MIN_GALLOP times in a row, copy whole blocks found by galloping instead of single elements.
+
+//Time Complexity: O(n) for input made of a few runs, O(nlogn) in the worst case.
+//Space Complexity: O(n) scratch buffer.
+
+public class TimSort {
+
+    private static final int MIN_MERGE = 32; //Arrays shorter than this are just binary insertion sorted
+    private static final int MIN_GALLOP = 7;
+
+    public static void main(String[] args) {
+
+        System.out.println("Tim Sort Algorithm");
+
+        int[] array = {64, 34, 25, 12, 22, 11, 90};
+        System.out.println("Original Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        timSort(array); // Call the sorting method
+
+        System.out.println("\n\nSorted Array:");
+        for (int num : array) {
+            System.out.print(num + " ");
+        }
+
+        //Event batch made of four presorted runs (one of them descending)
+        int n = 4_000_000;
+        int[] batch = new int[n];
+        for (int i = 0; i < n; i++) {
+            int run = i / (n / 4);
+            batch[i] = run == 2 ? n - i : i % (n / 4) * 3 + run;
+        }
+        int[] copy = batch.clone();
+        long start = System.nanoTime();
+        MergeSort.mergeSort(copy, new int[n], 0, n - 1);
+        long merge = System.nanoTime() - start;
+        start = System.nanoTime();
+        timSort(batch);
+        long tim = System.nanoTime() - start;
+        System.out.println("\n\nFour presorted runs of " + n + " elements, merge sort: " + merge / 1_000_000
+                + " ms, tim sort: " + tim / 1_000_000 + " ms, same result: " + Arrays.equals(batch, copy));
+
+        int[] random = new Random(42).ints(n).toArray();
+        copy = random.clone();
+        Arrays.sort(copy);
+        timSort(random);
+        System.out.println("Random input still sorted correctly: " + Arrays.equals(random, copy));
+    }
+
+    public static void timSort(int[] arr) {
+        int n = arr.length;
+        if (n < 2) {
+            return;
+        }
+        if (n < MIN_MERGE) {
+            int runLength = countRunAndMakeAscending(arr, 0, n);
+            InsertionSort.binaryInsertionSort(arr, 0, n - 1, runLength);
+            return;
+        }
+
+        int[] buffer = new int[n];
+        int[] runBase = new int[49]; //Enough for 2^31 elements under the stack invariants
+        int[] runLength = new int[49];
+        int stackSize = 0;
+        int minRun = minRunLength(n);
+
+        int low = 0;
+        while (low < n) {
+            int length = countRunAndMakeAscending(arr, low, n);
+            if (length < minRun) {//Extend short runs to minRun with binary insertion sort
+                int force = Math.min(minRun, n - low);
+                InsertionSort.binaryInsertionSort(arr, low, low + force - 1, low + length);
+                length = force;
+            }
+            runBase[stackSize] = low;
+            runLength[stackSize] = length;
+            stackSize++;
+            stackSize = mergeCollapse(arr, buffer, runBase, runLength, stackSize);
+            low += length;
+        }
+        while (stackSize > 1) {//Merge whatever is left, right to left
+            int i = stackSize - 2;
+            if (i > 0 && runLength[i - 1] < runLength[i + 1]) {
+                i--;
+            }
+            mergeAt(arr, buffer, runBase, runLength, stackSize, i);
+            stackSize--;
+        }
+    }
+
+    //Merges runs on top of the stack until the invariants hold again, returns the new stack size
+    private static int mergeCollapse(int[] arr, int[] buffer, int[] runBase, int[] runLength, int stackSize) {
+        while (stackSize > 1) {
+            int i = stackSize - 2;
+            if ((i > 0 && runLength[i - 1] <= runLength[i] + runLength[i + 1])
+                    || (i > 1 && runLength[i - 2] <= runLength[i] + runLength[i - 1])) {
+                if (runLength[i - 1] < runLength[i + 1]) {
+                    i--;
+                }
+            } else if (runLength[i] > runLength[i + 1]) {
+                break; //Invariants hold
+            }
+            mergeAt(arr, buffer, runBase, runLength, stackSize, i);
+            stackSize--;
+        }
+        return stackSize;
+    }
+
+    //Merges stack entries i and i + 1
+    private static void mergeAt(int[] arr, int[] buffer, int[] runBase, int[] runLength, int stackSize, int i) {
+        int base1 = runBase[i];
+        int length1 = runLength[i];
+        int base2 = runBase[i + 1];
+        int length2 = runLength[i + 1];
+
+        runLength[i] = length1 + length2;
+        if (i == stackSize - 3) {//Slide the top run down
+            runBase[i + 1] = runBase[i + 2];
+            runLength[i + 1] = runLength[i + 2];
+        }
+
+        //Elements of run 1 that are <= the first of run 2 are already in place
+        int k = gallopRight(arr[base2], arr, base1, length1);
+        base1 += k;
+        length1 -= k;
+        if (length1 == 0) {
+            return;
+        }
+        //Elements of run 2 that are >= the last of run 1 are already in place
+        length2 = gallopLeft(arr[base1 + length1 - 1], arr, base2, length2);
+        if (length2 == 0) {
+            return;
+        }
+        merge(arr, buffer, base1, length1, base2, length2);
+    }
+
+    //MergeSort.merge with a gallop mode. Run 1 is copied to the buffer, run 2 is read in place.
+    private static void merge(int[] arr, int[] buffer, int base1, int length1, int base2, int length2) {
+        System.arraycopy(arr, base1, buffer, base1, length1);
+        int cursor1 = base1, end1 = base1 + length1;
+        int cursor2 = base2, end2 = base2 + length2;
+        int dest = base1;
+        int minGallop = MIN_GALLOP;
+
+        outer:
+        while (true) {
+            int count1 = 0; //How many times in a row run 1 won
+            int count2 = 0; //How many times in a row run 2 won
+
+            //One element at a time until one run keeps winning
+            do {
+                if (arr[cursor2] < buffer[cursor1]) {
+                    arr[dest++] = arr[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (cursor2 == end2) {
+                        break outer;
+                    }
+                } else {
+                    arr[dest++] = buffer[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (cursor1 == end1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            //Gallop mode: copy whole blocks while that keeps paying off
+            do {
+                count1 = gallopRight(arr[cursor2], buffer, cursor1, end1 - cursor1);
+                if (count1 != 0) {
+                    System.arraycopy(buffer, cursor1, arr, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    if (cursor1 == end1) {
+                        break outer;
+                    }
+                }
+                arr[dest++] = arr[cursor2++];
+                if (cursor2 == end2) {
+                    break outer;
+                }
+
+                count2 = gallopLeft(buffer[cursor1], arr, cursor2, end2 - cursor2);
+                if (count2 != 0) {
+                    System.arraycopy(arr, cursor2, arr, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    if (cursor2 == end2) {
+                        break outer;
+                    }
+                }
+                arr[dest++] = buffer[cursor1++];
+                if (cursor1 == end1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2; //Penalty for leaving gallop mode
+        }
+
+        //Remaining elements of run 2 are already in place
+        if (cursor1 < end1) {
+            System.arraycopy(buffer, cursor1, arr, dest, end1 - cursor1);
+        }
+    }
+
+    //Number of elements at the start of a[base, base + length) that are < key
+    private static int gallopLeft(int key, int[] a, int base, int length) {
+        int last = 0, offset = 1;
+        while (offset < length && a[base + offset - 1] < key) {//Exponential search
+            last = offset;
+            offset = (offset << 1) + 1;
+            if (offset <= 0) {
+                offset = length; //Overflow
+            }
+        }
+        offset = Math.min(offset, length);
+        while (last < offset) {//Binary search in (last, offset]
+            int mid = (last + offset) >>> 1;
+            if (a[base + mid] < key) {
+                last = mid + 1;
+            } else {
+                offset = mid;
+            }
+        }
+        return last;
+    }
+
+    //Number of elements at the start of a[base, base + length) that are <= key
+    private static int gallopRight(int key, int[] a, int base, int length) {
+        int last = 0, offset = 1;
+        while (offset < length && a[base + offset - 1] <= key) {
+            last = offset;
+            offset = (offset << 1) + 1;
+            if (offset <= 0) {
+                offset = length;
+            }
+        }
+        offset = Math.min(offset, length);
+        while (last < offset) {
+            int mid = (last + offset) >>> 1;
+            if (a[base + mid] <= key) {
+                last = mid + 1;
+            } else {
+                offset = mid;
+            }
+        }
+        return last;
+    }
+
+    //Length of the run starting at low. A strictly descending run is reversed so it becomes ascending.
+    private static int countRunAndMakeAscending(int[] arr, int low, int high) {
+        int runEnd = low + 1;
+        if (runEnd == high) {
+            return 1;
+        }
+        if (arr[runEnd++] < arr[low]) {
+            while (runEnd < high && arr[runEnd] < arr[runEnd - 1]) {
+                runEnd++;
+            }
+            for (int i = low, j = runEnd - 1; i < j; i++, j--) {
+                int temp = arr[i];
+                arr[i] = arr[j];
+                arr[j] = temp;
+            }
+        } else {
+            while (runEnd < high && arr[runEnd] >= arr[runEnd - 1]) {
+                runEnd++;
+            }
+        }
+        return runEnd - low;
+    }
+
+    //n divided by a power of two so that n / minRun is a power of two or just below, with minRun in [16, 32]
+    private static int minRunLength(int n) {
+        int extra = 0; //Becomes 1 if any shifted off bit is set
+        while (n >= MIN_MERGE) {
+            extra |= (n & 1);
+            n >>= 1;
+        }
+        return n + extra;
+    }
+
+}
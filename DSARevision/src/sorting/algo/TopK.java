@@ -0,0 +1,112 @@
+package sorting.algo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+//problem: Keep the k largest values of an unbounded stream, e.g. the top 1000 scores out of 10^9 events.
+
+//logic:
+//1. Keep the current top k in a min heap, so the root is the weakest entry and the one to evict.
+//2. The heap core is the max heap of DaryHeapSort. Storing ~value instead of value reverses the order
+//   (~x = -x - 1 has no overflow), so the max heap of ~values is a min heap of values.
+//3. offer(value): while fewer than k values are stored, append and let the heap be built lazily.
+//   Once full, a value that beats the root replaces it and is sifted down; anything else costs one comparison.
+
+//Time Complexity: O(logk) per accepted value, O(1) per rejected value, so O(nlogk) for n values.
+//Space Complexity: O(k).
+
+public class TopK {
+
+    private final int[] heap; //Holds ~value of every entry
+    private final int arity;
+    private int size;
+    private boolean heapified;
+
+    public TopK(int k) {
+        this(k, DaryHeapSort.DEFAULT_ARITY);
+    }
+
+    public TopK(int k, int arity) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        DaryHeapSort.checkArity(arity);
+        this.heap = new int[k];
+        this.arity = arity;
+    }
+
+    public void offer(int value) {
+        int key = ~value;
+        if (size < heap.length) {
+            heap[size++] = key;
+            return;
+        }
+        if (!heapified) {
+            DaryHeapSort.buildHeap(heap, size, arity);
+            heapified = true;
+        }
+        if (key < heap[0]) {//value > current minimum of the top k
+            DaryHeapSort.siftDown(heap, size, 0, key, arity);
+        }
+    }
+
+    public void offerAll(int[] values) {
+        for (int value : values) {
+            offer(value);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //Smallest value still in the top k, i.e. the bar a new value has to beat
+    public int threshold() {
+        if (size == 0) {
+            throw new IllegalStateException("No values offered yet");
+        }
+        if (!heapified) {
+            DaryHeapSort.buildHeap(heap, size, arity);
+            heapified = true;
+        }
+        return ~heap[0];
+    }
+
+    //The current top k, largest first. The accumulator can keep receiving values afterwards.
+    public int[] toSortedArray() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = ~heap[i];
+        }
+        //Sorting the ~values ascending would give values descending, so sort values and reverse
+        DaryHeapSort.heapSort(result, arity);
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int temp = result[i];
+            result[i] = result[j];
+            result[j] = temp;
+        }
+        return result;
+    }
+
+    public static void main(String[] args) {
+
+        System.out.println("Top K");
+
+        TopK leaderboard = new TopK(5);
+        leaderboard.offerAll(new int[] {40, 7, 93, 18, 77, 65, 2, 88, 51, 93});
+        System.out.println("Top 5: " + Arrays.toString(leaderboard.toSortedArray())); //[93, 93, 88, 77, 65]
+
+        int k = 1000;
+        int n = 20_000_000;
+        TopK top = new TopK(k, 8);
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            top.offer(random.nextInt());
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("Top " + k + " of " + n + " values in " + elapsed / 1_000_000 + " ms, cut-off score: "
+                + top.threshold());
+    }
+
+}